@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+# 启动耗时与内存对比：普通 jar（JIT） / AOT + CDS / GraalVM 原生镜像
+#
+# 先构建要对比的产物（未构建的会被跳过）：
+#   ./mvnw -DskipTests package                    # 普通 jar
+#   ./mvnw -Pcds -DskipTests package              # target/cds/ 下的 AOT jar + application.jsa
+#   ./mvnw -Pnative -DskipTests native:compile    # target/shop-backend
+# 然后在有可用 MySQL 的环境中运行：
+#   SPRING_DATASOURCE_PASSWORD=*** scripts/startup-benchmark.sh [每种方式的运行次数，默认 5]
+#
+# 每次运行记录：Spring 报告的启动耗时、进程启动到 /actuator/health 返回 UP 的耗时、
+# 就绪时的 RSS，以及就绪 SETTLE 秒后（启动后台加载的商品索引 / 推荐完成后）的 RSS。
+# 运行时 profile 必须与 AOT 构建时的 aot.profiles 一致（默认 prod）。
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+SETTLE=${SETTLE:-10}
+TIMEOUT=${TIMEOUT:-120}
+export SPRING_PROFILES_ACTIVE=${SPRING_PROFILES_ACTIVE:-prod}
+
+JAR=target/shop-backend-0.0.1-SNAPSHOT.jar
+CDS_DIR=target/cds
+NATIVE=target/shop-backend
+APP_ARGS=(--server.port="$PORT" --spring.sql.init.mode=never)
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+rss_kb() {
+    awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# run_once <命令...>，输出 "spring启动秒数 就绪毫秒 就绪RSS(KB) 稳定后RSS(KB)"
+run_once() {
+    local start pid ready_ms started rss_ready rss_settled
+    start=$(now_ms)
+    "$@" "${APP_ARGS[@]}" >"$LOG" 2>&1 &
+    pid=$!
+    until curl -fs "http://localhost:$PORT/actuator/health" 2>/dev/null | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "进程已退出，日志:" >&2
+            tail -n 40 "$LOG" >&2
+            exit 1
+        fi
+        if (( $(now_ms) - start > TIMEOUT * 1000 )); then
+            echo "等待就绪超时" >&2
+            kill "$pid"
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ready_ms=$(( $(now_ms) - start ))
+    rss_ready=$(rss_kb "$pid")
+    sleep "$SETTLE"
+    rss_settled=$(rss_kb "$pid")
+    started=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$LOG" | grep -oE '[0-9.]+' | head -n 1)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "${started:-NaN} $ready_ms $rss_ready $rss_settled"
+}
+
+# bench <名称> <命令...>
+bench() {
+    local name=$1
+    shift
+    local results=()
+    for ((i = 1; i <= RUNS; i++)); do
+        results+=("$(run_once "$@")")
+        echo "  $name #$i: ${results[-1]}" >&2
+    done
+    printf '%s\n' "${results[@]}" | awk -v name="$name" '
+        { started += $1; ready += $2; rss += $3; settled += $4; n++ }
+        END { printf "%-10s %14.2f %12.0f %14.0f %16.0f\n", name, started / n, ready / n, rss / n / 1024, settled / n / 1024 }'
+}
+
+rows=()
+if [[ -f $JAR ]]; then
+    rows+=("$(bench jar java -jar "$JAR")")
+fi
+if [[ -f $CDS_DIR/application.jsa ]]; then
+    # 类路径须与训练运行完全一致，所以在解压目录中启动
+    rows+=("$(bench aot+cds env -C "$CDS_DIR" java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+        -jar shop-backend-0.0.1-SNAPSHOT.jar)")
+fi
+if [[ -x $NATIVE ]]; then
+    rows+=("$(bench native "$NATIVE")")
+fi
+if (( ${#rows[@]} == 0 )); then
+    echo "没有找到可对比的构建产物，请先构建" >&2
+    exit 1
+fi
+
+echo
+echo "profile=$SPRING_PROFILES_ACTIVE runs=$RUNS（均值）"
+printf "%-10s %14s %12s %14s %16s\n" variant "spring_start_s" "ready_ms" "rss_ready_mb" "rss_settled_mb"
+printf '%s\n' "${rows[@]}"
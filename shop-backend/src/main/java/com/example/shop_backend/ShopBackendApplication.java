@@ -1,5 +1,6 @@
 package com.example.shop_backend;
 
+import com.example.shop_backend.config.ShopRuntimeHints;
 import com.example.shop_backend.model.User;
 import com.example.shop_backend.model.UserRole;
 import com.example.shop_backend.repository.UserRepository;
@@ -7,10 +8,12 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
+@ImportRuntimeHints(ShopRuntimeHints.class)
 public class ShopBackendApplication {
 
 	public static void main(String[] args) {
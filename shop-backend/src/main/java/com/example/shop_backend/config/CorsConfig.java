@@ -18,6 +18,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 )
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("X-Data-Stale", "Age", "Retry-After")
                 .allowCredentials(true);
     }
 }
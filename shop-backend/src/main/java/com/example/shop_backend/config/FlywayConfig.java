@@ -0,0 +1,29 @@
+package com.example.shop_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the Flyway migrations at startup unless {@code flyway.migrate-on-start=false}, which the
+ * CDS training run uses to start without a database. This is a runtime check rather than
+ * {@code spring.flyway.enabled}, because AOT processing fixes bean conditions at build time.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Value("${flyway.migrate-on-start:true}")
+    private boolean migrateOnStart;
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy() {
+        return flyway -> {
+            if (migrateOnStart) {
+                flyway.migrate();
+            } else {
+                System.out.println("Skipping Flyway migrations (flyway.migrate-on-start=false)");
+            }
+        };
+    }
+}
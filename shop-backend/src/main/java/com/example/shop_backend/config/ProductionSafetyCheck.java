@@ -0,0 +1,84 @@
+package com.example.shop_backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Refuses to start the prod profile with settings that are fine for local development
+ * but hurt or endanger production: SQL logging, data.sql wiping tables, schema
+ * auto-update, open-session-in-view, the dev database password, or an untuned pool.
+ */
+@Component
+@Profile("prod")
+public class ProductionSafetyCheck implements InitializingBean {
+
+    private static final String DEV_PASSWORD = "yuzaoqian521";
+    private static final int MAX_POOL_SIZE = 100;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Override
+    public void afterPropertiesSet() {
+        List<String> problems = new ArrayList<>();
+
+        requireFalse("spring.jpa.show-sql", false, problems);
+        requireFalse("spring.jpa.properties.hibernate.format_sql", false, problems);
+        requireFalse("spring.jpa.properties.hibernate.generate_statistics", false, problems);
+        requireFalse("spring.jpa.open-in-view", true, problems);
+
+        if ("always".equalsIgnoreCase(environment.getProperty("spring.sql.init.mode"))) {
+            problems.add("spring.sql.init.mode=always 会在每次启动时执行 data.sql");
+        }
+        String ddlAuto = environment.getProperty("spring.jpa.hibernate.ddl-auto", "none");
+        if (!ddlAuto.equals("none") && !ddlAuto.equals("validate")) {
+            problems.add("spring.jpa.hibernate.ddl-auto=" + ddlAuto + "，表结构应由 Flyway 管理");
+        }
+        if (Arrays.asList(environment.getActiveProfiles()).contains("datagen")) {
+            problems.add("prod 与 datagen profile 不能同时启用");
+        }
+
+        String password = environment.getProperty("spring.datasource.password", "");
+        if (password.isBlank() || password.equals(DEV_PASSWORD)) {
+            problems.add("数据库密码为空或仍是开发环境密码，请设置 SPRING_DATASOURCE_PASSWORD");
+        }
+
+        if (dataSource instanceof HikariDataSource hikari) {
+            if (hikari.getMaximumPoolSize() > MAX_POOL_SIZE) {
+                problems.add("连接池过大: maximum-pool-size=" + hikari.getMaximumPoolSize());
+            }
+            if (hikari.getConnectionTimeout() > 10_000) {
+                problems.add("connection-timeout=" + hikari.getConnectionTimeout() + "ms，数据库繁忙时请求会长时间挂起");
+            }
+            String rewrite = hikari.getDataSourceProperties().getProperty("rewriteBatchedStatements");
+            if (!"true".equalsIgnoreCase(rewrite)) {
+                problems.add("未开启 rewriteBatchedStatements");
+            }
+        } else {
+            problems.add("生产环境需要使用 Hikari 连接池");
+        }
+
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("生产环境配置不安全:\n - " + String.join("\n - ", problems));
+        }
+        System.out.println("Production safety check passed");
+    }
+
+    private void requireFalse(String key, boolean defaultValue, List<String> problems) {
+        if (environment.getProperty(key, Boolean.class, defaultValue)) {
+            problems.add(key + " 必须为 false");
+        }
+    }
+}
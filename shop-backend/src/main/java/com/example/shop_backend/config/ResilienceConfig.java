@@ -0,0 +1,19 @@
+package com.example.shop_backend.config;
+
+import com.example.shop_backend.resilience.WriteGuardInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ResilienceConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private WriteGuardInterceptor writeGuardInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(writeGuardInterceptor).addPathPatterns("/api/**");
+    }
+}
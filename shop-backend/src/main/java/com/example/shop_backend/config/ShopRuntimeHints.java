@@ -0,0 +1,37 @@
+package com.example.shop_backend.config;
+
+import com.example.shop_backend.controller.dto.OrderHistoryPage;
+import com.example.shop_backend.controller.dto.ProductPage;
+import com.example.shop_backend.controller.dto.ProductRequest;
+import com.example.shop_backend.controller.dto.SellerFeedEvent;
+import com.example.shop_backend.controller.dto.SellerOrderItemResponse;
+import com.example.shop_backend.model.CartItem;
+import com.example.shop_backend.model.Order;
+import com.example.shop_backend.model.OrderItem;
+import com.example.shop_backend.model.OrderStatus;
+import com.example.shop_backend.model.OrderSummary;
+import com.example.shop_backend.model.Product;
+import com.example.shop_backend.model.User;
+import com.example.shop_backend.model.UserRole;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the native image. Most controllers return {@code ResponseEntity<?>},
+ * so AOT processing cannot see which types Jackson will serialize; the entities and DTOs are
+ * registered here with their Lombok-generated getters and setters.
+ */
+public class ShopRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                User.class, UserRole.class, Product.class, CartItem.class,
+                Order.class, OrderItem.class, OrderStatus.class, OrderSummary.class,
+                ProductPage.class, ProductRequest.class, OrderHistoryPage.class,
+                SellerOrderItemResponse.class, SellerFeedEvent.class);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.shop_backend.controller;
 
 import com.example.shop_backend.model.CartItem;
+import com.example.shop_backend.resilience.DatabaseUnavailableException;
+import com.example.shop_backend.resilience.DbGuard;
 import com.example.shop_backend.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +18,9 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private DbGuard dbGuard;
+
     @GetMapping("/{userId}")
     public List<CartItem> getCart(@PathVariable Long userId) {
         return cartService.getCartByUser(userId);
@@ -54,8 +59,13 @@ public class CartController {
     @PostMapping("/{userId}/checkout")
     public ResponseEntity<?> checkout(@PathVariable Long userId) {
         try {
-            cartService.checkout(userId);
+            dbGuard.write(() -> {
+                cartService.checkout(userId);
+                return null;
+            });
             return ResponseEntity.noContent().build();
+        } catch (DatabaseUnavailableException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
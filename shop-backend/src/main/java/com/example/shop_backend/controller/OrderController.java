@@ -3,11 +3,20 @@ package com.example.shop_backend.controller;
 import com.example.shop_backend.model.Order;
 import com.example.shop_backend.controller.dto.SellerOrderItemResponse;
 import com.example.shop_backend.model.OrderItem;
+import com.example.shop_backend.model.User;
+import com.example.shop_backend.model.UserRole;
+import com.example.shop_backend.resilience.DatabaseUnavailableException;
+import com.example.shop_backend.service.AuthService;
 import com.example.shop_backend.service.OrderService;
+import com.example.shop_backend.service.SellerFeedHub;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -19,11 +28,40 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private SellerFeedHub sellerFeedHub;
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getOrdersByUser(@PathVariable Long userId) {
         try {
             List<Order> orders = orderService.getOrdersByUser(userId);
             return ResponseEntity.ok(orders);
+        } catch (DatabaseUnavailableException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Paginated replacement for the endpoint above: one summary row per order, newest first.
+     * Line items are fetched per order through {@link #getOrderDetail}.
+     */
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<?> getOrderHistory(@PathVariable Long userId,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+                                             @RequestParam(required = false) Long beforeId,
+                                             @RequestParam(defaultValue = "20") int size) {
+        if (size <= 0) {
+            return ResponseEntity.badRequest().body("分页参数无效");
+        }
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistory(userId, beforeCreatedAt, beforeId, Math.min(size, 100)));
+        } catch (DatabaseUnavailableException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -34,6 +72,8 @@ public class OrderController {
         try {
             Order order = orderService.getOrderForUser(orderId, userId);
             return ResponseEntity.ok(order);
+        } catch (DatabaseUnavailableException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -71,4 +111,23 @@ public class OrderController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    /**
+     * Pushes each new order line and the matching stats delta to the seller dashboard,
+     * replacing repeated polling of the two endpoints above.
+     */
+    @GetMapping(path = "/seller/{sellerId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamSellerOrders(@PathVariable Long sellerId) {
+        try {
+            User seller = authService.findById(sellerId).orElseThrow(() -> new RuntimeException("卖家不存在"));
+            if (seller.getRole() != UserRole.SELLER) {
+                throw new RuntimeException("该账号不是销售管理");
+            }
+            SseEmitter emitter = sellerFeedHub.subscribe(sellerId);
+            // Stops nginx from buffering the stream
+            return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
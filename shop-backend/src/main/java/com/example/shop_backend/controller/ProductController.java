@@ -2,12 +2,16 @@ package com.example.shop_backend.controller;
 
 import com.example.shop_backend.controller.dto.ProductRequest;
 import com.example.shop_backend.model.Product;
+import com.example.shop_backend.resilience.DatabaseUnavailableException;
+import com.example.shop_backend.resilience.DbGuard;
 import com.example.shop_backend.service.OrderService;
 import com.example.shop_backend.service.ProductService;
+import com.example.shop_backend.service.RecommendationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -21,15 +25,44 @@ public class ProductController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private DbGuard dbGuard;
+
     @GetMapping
     public List<Product> getAllProducts() {
         return productService.getAllProducts();
     }
 
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterProducts(@RequestParam(required = false) BigDecimal minPrice,
+                                            @RequestParam(required = false) BigDecimal maxPrice,
+                                            @RequestParam(defaultValue = "false") boolean inStock,
+                                            @RequestParam(required = false) Long sellerId,
+                                            @RequestParam(defaultValue = "price_asc") String sort,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "24") int size) {
+        if (!sort.equals("price_asc") && !sort.equals("price_desc")) {
+            return ResponseEntity.badRequest().body("不支持的排序方式");
+        }
+        try {
+            return ResponseEntity.ok(productService.filterProducts(minPrice, maxPrice, inStock, sellerId,
+                    sort.equals("price_desc"), page, Math.min(size, 100)));
+        } catch (DatabaseUnavailableException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/seller/{sellerId}")
     public ResponseEntity<?> getProductsBySeller(@PathVariable Long sellerId) {
         try {
             return ResponseEntity.ok(productService.getProductsBySeller(sellerId));
+        } catch (DatabaseUnavailableException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -42,6 +75,12 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/recommendations")
+    public List<Product> getRecommendations(@PathVariable Long id, @RequestParam(defaultValue = "6") int limit) {
+        long[] ids = recommendationService.relatedProductIds(id, Math.max(0, limit));
+        return ids.length == 0 ? List.of() : productService.getProductsByIds(ids);
+    }
+
     @PostMapping
     public ResponseEntity<?> createProduct(@RequestBody ProductRequest request) {
         try {
@@ -81,7 +120,9 @@ public class ProductController {
             return ResponseEntity.badRequest().body("用户不存在");
         }
         try {
-            return ResponseEntity.ok(orderService.purchaseSingle(userId.longValue(), id, quantity));
+            return ResponseEntity.ok(dbGuard.write(() -> orderService.purchaseSingle(userId.longValue(), id, quantity)));
+        } catch (DatabaseUnavailableException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -0,0 +1,18 @@
+package com.example.shop_backend.controller.dto;
+
+import com.example.shop_backend.model.OrderSummary;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of a buyer's order history, newest first. Pass {@code nextBeforeCreatedAt} and
+ * {@code nextBeforeId} back to fetch the following page; both are null on the last page.
+ */
+@Data
+public class OrderHistoryPage {
+    private List<OrderSummary> items;
+    private LocalDateTime nextBeforeCreatedAt;
+    private Long nextBeforeId;
+}
@@ -0,0 +1,14 @@
+package com.example.shop_backend.controller.dto;
+
+import com.example.shop_backend.model.Product;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductPage {
+    private List<Product> items;
+    private long total;
+    private int page;
+    private int size;
+}
@@ -2,11 +2,13 @@ package com.example.shop_backend.controller.dto;
 
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 public class ProductRequest {
     private String name;
     private String description;
-    private Double price;
+    private BigDecimal price;
     private String imageUrl;
     private Integer stockQuantity;
     private Long sellerId;
@@ -0,0 +1,20 @@
+package com.example.shop_backend.controller.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One order as seen by one seller: the new order lines plus the amounts to add to
+ * the figures returned by {@code /api/orders/seller/{sellerId}/stats}.
+ */
+@Data
+public class SellerFeedEvent {
+    private List<SellerOrderItemResponse> items;
+    private BigDecimal totalRevenue;
+    private int totalOrders;
+    private int totalUnits;
+    private Map<String, Long> productSales;
+}
@@ -2,6 +2,7 @@ package com.example.shop_backend.controller.dto;
 
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -12,7 +13,7 @@ public class SellerOrderItemResponse {
     private Long productId;
     private String productName;
     private Integer quantity;
-    private Double price;
+    private BigDecimal price;
     private Long buyerId;
     private String buyerName;
 }
@@ -0,0 +1,281 @@
+package com.example.shop_backend.datagen;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the database with a large synthetic dataset for performance work.
+ * Enabled with {@code --spring.profiles.active=datagen}; sizes are configured in
+ * {@code application-datagen.properties}. Rows are appended after the current max ids,
+ * so existing data (admin / buyer) is kept.
+ * <p>
+ * Product popularity follows a Zipf distribution, orders are spread over the last
+ * {@code datagen.years} years in id order, and every chunk of rows is written by a
+ * worker thread in its own transaction with batched JDBC inserts.
+ */
+@Component
+@Profile("datagen")
+public class DatasetGenerator implements CommandLineRunner {
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (id, username, password, email, role) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (id, name, description, price, image_url, stock_quantity, seller_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (id, user_id, status, created_at, shipped_at, received_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_items (order_id, product_id, seller_id, quantity, price) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_SUMMARY =
+            "INSERT INTO order_summaries (order_id, user_id, status, created_at, shipped_at, received_at,"
+                    + " item_count, total_amount, preview_product_name, preview_image_url) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_CART_ITEM =
+            "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${datagen.users:100000}")
+    private int users;
+
+    @Value("${datagen.sellers:500}")
+    private int sellers;
+
+    @Value("${datagen.products:50000}")
+    private int products;
+
+    @Value("${datagen.orders:1000000}")
+    private int orders;
+
+    @Value("${datagen.max-items-per-order:5}")
+    private int maxItemsPerOrder;
+
+    @Value("${datagen.carts:20000}")
+    private int carts;
+
+    @Value("${datagen.years:3}")
+    private int years;
+
+    @Value("${datagen.zipf-exponent:1.1}")
+    private double zipfExponent;
+
+    @Value("${datagen.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${datagen.threads:4}")
+    private int threads;
+
+    @Value("${datagen.seed:42}")
+    private long seed;
+
+    @Value("${datagen.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    private long userBase;
+    private long productBase;
+    private long orderBase;
+    private long[] productSeller;
+    private BigDecimal[] productPrice;
+    private ZipfianSampler popularity;
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (sellers > users) {
+            throw new IllegalStateException("datagen.sellers 不能大于 datagen.users");
+        }
+        // Each cart is one customer's: two carts of the same user could repeat a product and break uk_cart_items_user_product
+        if (carts > users - sellers) {
+            throw new IllegalStateException("datagen.carts 不能大于买家数 (datagen.users - datagen.sellers = "
+                    + (users - sellers) + ")");
+        }
+        userBase = maxId("users");
+        productBase = maxId("products");
+        orderBase = maxId("orders");
+        System.out.printf("Dataset generation: users=%d sellers=%d products=%d orders=%d carts=%d threads=%d%n",
+                users, sellers, products, orders, carts, threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            phase(pool, "users", users, this::writeUsers);
+            prepareProducts();
+            phase(pool, "products", products, this::writeProducts);
+            popularity = new ZipfianSampler(products, zipfExponent, seed);
+            phase(pool, "orders", orders, this::writeOrders);
+            phase(pool, "carts", carts, this::writeCarts);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void writeUsers(int from, int to) {
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            long id = userBase + 1 + i;
+            String role = i < sellers ? "SELLER" : "CUSTOMER";
+            rows.add(new Object[]{id, "user_" + id, "123456", "user_" + id + "@example.com", role});
+        }
+        insert(INSERT_USER, rows);
+    }
+
+    private void prepareProducts() {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        productSeller = new long[products];
+        productPrice = new BigDecimal[products];
+        for (int i = 0; i < products; i++) {
+            productSeller[i] = userBase + 1 + rnd.nextInt(sellers);
+            // Log-normal prices: mostly tens to hundreds, with a long tail of expensive items
+            double price = Math.exp(4.5 + 1.2 * rnd.nextGaussian());
+            productPrice[i] = BigDecimal.valueOf(Math.round(Math.min(Math.max(price, 1), 50000) * 100), 2);
+        }
+    }
+
+    private void writeProducts(int from, int to) {
+        SplittableRandom rnd = chunkRandom(1, from);
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            long id = productBase + 1 + i;
+            int stock = rnd.nextInt(20) == 0 ? 0 : rnd.nextInt(1, 1000);
+            rows.add(new Object[]{id, "Product " + id, "Generated product " + id, productPrice[i],
+                    "/100191209_p0.jpg", stock, productSeller[i]});
+        }
+        insert(INSERT_PRODUCT, rows);
+    }
+
+    private void writeOrders(int from, int to) {
+        SplittableRandom rnd = chunkRandom(2, from);
+        LocalDateTime end = LocalDateTime.now().minusDays(1);
+        long spanMinutes = ChronoUnit.MINUTES.between(end.minusYears(years), end);
+
+        List<Object[]> orderRows = new ArrayList<>(to - from);
+        List<Object[]> itemRows = new ArrayList<>((to - from) * (maxItemsPerOrder + 1) / 2);
+        List<Object[]> summaryRows = new ArrayList<>(to - from);
+        int[] picked = new int[maxItemsPerOrder];
+        for (int i = from; i < to; i++) {
+            long orderId = orderBase + 1 + i;
+            // Creation time grows with the id, like a real auto-increment table, plus a little jitter
+            long minutesAgo = spanMinutes - spanMinutes * i / orders + rnd.nextInt(60);
+            LocalDateTime createdAt = end.minusMinutes(minutesAgo);
+            Timestamp created = Timestamp.valueOf(createdAt);
+            long userId = userBase + 1 + sellers + rnd.nextInt(Math.max(1, users - sellers));
+            Timestamp received = Timestamp.valueOf(createdAt.plusMinutes(10));
+            orderRows.add(new Object[]{orderId, userId, "RECEIVED", created, created, received});
+
+            int lines = pickDistinctProducts(rnd, picked, 1 + rnd.nextInt(maxItemsPerOrder));
+            int units = 0;
+            BigDecimal total = BigDecimal.ZERO;
+            for (int l = 0; l < lines; l++) {
+                int p = picked[l];
+                int quantity = 1 + rnd.nextInt(3);
+                itemRows.add(new Object[]{orderId, productBase + 1 + p, productSeller[p], quantity, productPrice[p]});
+                units += quantity;
+                total = total.add(productPrice[p].multiply(BigDecimal.valueOf(quantity)));
+            }
+            String previewName = lines == 0 ? null : "Product " + (productBase + 1 + picked[0]);
+            String previewImage = lines == 0 ? null : "/100191209_p0.jpg";
+            summaryRows.add(new Object[]{orderId, userId, "RECEIVED", created, created, received,
+                    units, total, previewName, previewImage});
+        }
+        insert(INSERT_ORDER, orderRows);
+        insert(INSERT_ORDER_ITEM, itemRows);
+        insert(INSERT_ORDER_SUMMARY, summaryRows);
+    }
+
+    private void writeCarts(int from, int to) {
+        SplittableRandom rnd = chunkRandom(3, from);
+        int customers = Math.max(1, users - sellers);
+        List<Object[]> rows = new ArrayList<>((to - from) * 2);
+        int[] picked = new int[4];
+        for (int i = from; i < to; i++) {
+            // Spread carts evenly over customers so every cart belongs to a different user
+            long userId = userBase + 1 + sellers + (long) i * customers / Math.max(carts, 1);
+            int lines = pickDistinctProducts(rnd, picked, 1 + rnd.nextInt(picked.length));
+            for (int l = 0; l < lines; l++) {
+                rows.add(new Object[]{userId, productBase + 1 + picked[l], 1 + rnd.nextInt(3)});
+            }
+        }
+        insert(INSERT_CART_ITEM, rows);
+    }
+
+    private int pickDistinctProducts(SplittableRandom rnd, int[] picked, int wanted) {
+        int count = 0;
+        for (int attempt = 0; attempt < wanted * 4 && count < wanted; attempt++) {
+            int candidate = popularity.next(rnd);
+            boolean duplicate = false;
+            for (int j = 0; j < count; j++) {
+                if (picked[j] == candidate) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                picked[count++] = candidate;
+            }
+        }
+        return count;
+    }
+
+    private void phase(ExecutorService pool, String name, int total, ChunkWriter writer) throws Exception {
+        long start = System.nanoTime();
+        int chunk = batchSize * 5;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < total; from += chunk) {
+            int f = from;
+            int t = Math.min(total, from + chunk);
+            futures.add(pool.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> writer.write(f, t))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  %-8s %,12d rows in %6.1fs (%,.0f rows/s)%n", name, total, seconds, total / Math.max(seconds, 1e-9));
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int i = 0; i < rows.size(); i += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(i, Math.min(rows.size(), i + batchSize)));
+        }
+    }
+
+    private SplittableRandom chunkRandom(int phase, int chunkStart) {
+        return new SplittableRandom(seed * 31 + phase * 1_000_003L + chunkStart);
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(int from, int to);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.shop_backend.datagen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Samples indexes in [0, n) with Zipf-distributed popularity: the item of rank k is picked
+ * with probability proportional to 1 / k^exponent. Ranks are shuffled onto indexes so that
+ * the most popular products are not simply the ones with the lowest ids.
+ */
+public class ZipfianSampler {
+
+    private final double[] cdf;
+    private final int[] rankToIndex;
+
+    public ZipfianSampler(int n, double exponent, long seed) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+
+        rankToIndex = new int[n];
+        for (int i = 0; i < n; i++) {
+            rankToIndex[i] = i;
+        }
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = rankToIndex[i];
+            rankToIndex[i] = rankToIndex[j];
+            rankToIndex[j] = tmp;
+        }
+    }
+
+    public int next(SplittableRandom rnd) {
+        int rank = Arrays.binarySearch(cdf, rnd.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return rankToIndex[Math.min(rank, cdf.length - 1)];
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.shop_backend.diagnostics;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records the commit of the current transaction as an {@link ShopEvents.OrderPhase} named
+ * {@code commit} (or {@code rollback}). It covers the Hibernate flush, before-commit listeners
+ * and the database commit, which all run after the service method has returned.
+ */
+public final class CommitTiming {
+
+    private CommitTiming() {
+    }
+
+    public static void record(String operation) {
+        ShopEvents.OrderPhase probe = new ShopEvents.OrderPhase();
+        if (!probe.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private final ShopEvents.OrderPhase event = new ShopEvents.OrderPhase();
+            private boolean begun;
+
+            @Override
+            public int getOrder() {
+                // Start before other synchronizations run their before-commit work
+                return Integer.MIN_VALUE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                event.begin();
+                begun = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!begun) {
+                    // Rolled back before reaching commit
+                    event.begin();
+                }
+                event.operation = operation;
+                event.phase = status == STATUS_COMMITTED ? "commit" : "rollback";
+                event.commit();
+            }
+        });
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.shop_backend.diagnostics;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/jfr}: controls one bounded, continuous Flight Recorder recording.
+ * <ul>
+ *   <li>{@code GET} — state of the recording</li>
+ *   <li>{@code POST} — start it ({@code maxAgeMinutes}, {@code maxSizeMb}, {@code settings=default|profile})</li>
+ *   <li>{@code GET /dump} — download what the recording currently holds as a .jfr file</li>
+ *   <li>{@code DELETE} — stop and discard it</li>
+ * </ul>
+ * Old data is dropped once it is older than max age or the repository exceeds max size, so the
+ * recording can stay on indefinitely. Access requires the token checked by {@link JfrEndpointFilter}.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final String RECORDING_NAME = "shop-continuous";
+
+    @Value("${diagnostics.jfr.continuous:false}")
+    private boolean continuous;
+
+    @Value("${diagnostics.jfr.max-age-minutes:30}")
+    private int defaultMaxAgeMinutes;
+
+    @Value("${diagnostics.jfr.max-size-mb:200}")
+    private int defaultMaxSizeMb;
+
+    @Value("${diagnostics.jfr.settings:default}")
+    private String defaultSettings;
+
+    private Recording recording;
+    private Path lastDump;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startContinuous() {
+        if (continuous) {
+            Map<String, Object> status = start(null, null, null);
+            System.out.println("JFR continuous recording started: " + status);
+        }
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("name", recording.getName());
+        status.put("startTime", recording.getStartTime());
+        status.put("maxAgeMinutes", recording.getMaxAge() == null ? null : recording.getMaxAge().toMinutes());
+        status.put("maxSizeMb", recording.getMaxSize() / (1024 * 1024));
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@OptionalParameter Integer maxAgeMinutes,
+                                                  @OptionalParameter Integer maxSizeMb,
+                                                  @OptionalParameter String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return status();
+        }
+        closeRecording();
+        String settingsName = settings == null ? defaultSettings : settings;
+        if (!settingsName.equals("default") && !settingsName.equals("profile")) {
+            throw new InvalidEndpointRequestException("settings 只能是 default 或 profile", "Invalid settings");
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration(settingsName));
+            r.setName(RECORDING_NAME);
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(clamp(maxAgeMinutes, defaultMaxAgeMinutes, 1, 24 * 60)));
+            r.setMaxSize(clamp(maxSizeMb, defaultMaxSizeMb, 10, 4096) * 1024L * 1024L);
+            // The shop events are on in any settings file
+            for (Class<? extends Event> type : ShopEvents.ALL) {
+                r.enable(type).withThreshold(Duration.ZERO);
+            }
+            r.start();
+            recording = r;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("无法加载 JFR 配置 " + settingsName + ": " + e.getMessage(), e);
+        }
+        return status();
+    }
+
+    @ReadOperation
+    public synchronized Resource dump(@Selector String action) throws IOException {
+        if (!"dump".equals(action) || recording == null || recording.getState() != RecordingState.RUNNING) {
+            return null;
+        }
+        // Only the most recent dump is kept on disk
+        if (lastDump != null) {
+            Files.deleteIfExists(lastDump);
+        }
+        lastDump = Files.createTempFile("shop-", ".jfr");
+        recording.dump(lastDump);
+        return new FileSystemResource(lastDump);
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        closeRecording();
+        return status();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() throws IOException {
+        closeRecording();
+        if (lastDump != null) {
+            Files.deleteIfExists(lastDump);
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static int clamp(Integer requested, int fallback, int min, int max) {
+        int value = requested == null ? fallback : requested;
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.shop_backend.diagnostics;
+
+import com.example.shop_backend.util.RequestPaths;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Guards {@code /actuator/jfr} and {@code /actuator/journal}: recordings contain stack traces, SQL
+ * timings and user ids, the journal exposes sales figures, and both can start expensive work.
+ * Requests need {@code Authorization: Bearer <diagnostics.jfr.token>}; with no token configured the
+ * endpoints are closed entirely.
+ */
+@Component
+public class JfrEndpointFilter extends OncePerRequestFilter {
+
+    private static final List<String> PATHS = List.of("/actuator/jfr", "/actuator/journal");
+
+    @Value("${diagnostics.jfr.token:}")
+    private String token;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Matched on the decoded path so encoded or ;-parameter variants are guarded too
+        String path = RequestPaths.normalized(request);
+        for (String guarded : PATHS) {
+            if (RequestPaths.isUnder(path, guarded)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (token.isBlank()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "未配置 diagnostics.jfr.token");
+            return;
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String presented = header != null && header.startsWith("Bearer ") ? header.substring(7) : "";
+        if (!MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.shop_backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+/**
+ * JDK Flight Recorder events for the shop's business operations. They are recorded with
+ * the JVM's own events (GC, locks, socket I/O, JDBC threads), so a slow checkout in a
+ * recording can be lined up with what the JVM was doing at that moment.
+ * <p>
+ * When no recording is running, JFR leaves disabled events out of the compiled code, so
+ * the instrumentation costs next to nothing.
+ */
+public final class ShopEvents {
+
+    /** Every event type declared here, listed explicitly so no reflection is needed to find them. */
+    public static final List<Class<? extends Event>> ALL = List.of(
+            Checkout.class, Purchase.class, OrderPhase.class, AddToCart.class,
+            SellerStats.class, AutoReceiveSweep.class, MailSend.class);
+
+    private ShopEvents() {
+    }
+
+    @Name("shop.Checkout")
+    @Label("Cart Checkout")
+    @Category({"Shop", "Orders"})
+    @StackTrace(false)
+    public static class Checkout extends Event {
+        @Label("User Id")
+        public long userId;
+        @Label("Order Id")
+        public long orderId;
+        @Label("Lines")
+        public int lines;
+        @Label("Units")
+        public int units;
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("shop.Purchase")
+    @Label("Single Product Purchase")
+    @Category({"Shop", "Orders"})
+    @StackTrace(false)
+    public static class Purchase extends Event {
+        @Label("User Id")
+        public long userId;
+        @Label("Product Id")
+        public long productId;
+        @Label("Order Id")
+        public long orderId;
+        @Label("Quantity")
+        public int quantity;
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("shop.OrderPhase")
+    @Label("Order Phase")
+    @Description("One step of checkout / purchase: stock (checks and decrements in the session), insert (order, item and "
+            + "summary rows), commit (flush of the stock updates, before-commit listeners, database commit)")
+    @Category({"Shop", "Orders"})
+    @StackTrace(false)
+    public static class OrderPhase extends Event {
+        @Label("Operation")
+        public String operation;
+        @Label("Phase")
+        public String phase;
+        @Label("Rows")
+        public int rows;
+    }
+
+    @Name("shop.AddToCart")
+    @Label("Add To Cart")
+    @Category({"Shop", "Cart"})
+    @StackTrace(false)
+    public static class AddToCart extends Event {
+        @Label("User Id")
+        public long userId;
+        @Label("Product Id")
+        public long productId;
+        @Label("Quantity")
+        public int quantity;
+        @Label("Merged Into Existing Line")
+        public boolean merged;
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("shop.SellerStats")
+    @Label("Seller Stats")
+    @Category({"Shop", "Seller"})
+    @StackTrace(false)
+    public static class SellerStats extends Event {
+        @Label("Seller Id")
+        public long sellerId;
+        @Label("Order Item Rows")
+        public int itemRows;
+        @Label("Orders")
+        public int orders;
+    }
+
+    @Name("shop.AutoReceiveSweep")
+    @Label("Auto-Receive Sweep")
+    @Category({"Shop", "Scheduled"})
+    @StackTrace(false)
+    public static class AutoReceiveSweep extends Event {
+        @Label("Shard")
+        public int shard;
+        @Label("Shards")
+        public int shards;
+        @Label("Orders Received")
+        public int orders;
+    }
+
+    @Name("shop.MailSend")
+    @Label("Order Mail")
+    @Category({"Shop", "Mail"})
+    @StackTrace(false)
+    public static class MailSend extends Event {
+        @Label("Order Id")
+        public long orderId;
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.shop_backend.journal;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/journal}: the order journal and the projections rebuilt from it.
+ * <ul>
+ *   <li>{@code GET} — segments, sequence numbers and group-commit counters</li>
+ *   <li>{@code POST} — rebuild a projection from the journal ({@code projection=seller-stats})</li>
+ *   <li>{@code GET /seller-stats/{sellerId}} — a seller's totals as of the last rebuild, flagged
+ *   {@code complete=false} when the journal is missing orders</li>
+ * </ul>
+ * Guarded by the same token as {@code /actuator/jfr}, see {@code JfrEndpointFilter}.
+ */
+@Component
+@Endpoint(id = "journal")
+public class JournalEndpoint {
+
+    private static final String SELLER_STATS = "seller-stats";
+
+    @Autowired
+    private OrderJournal journal;
+
+    @Autowired
+    private SellerStatsProjection sellerStats;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return journal.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@OptionalParameter String projection) {
+        if (projection != null && !projection.equals(SELLER_STATS)) {
+            throw new InvalidEndpointRequestException("projection 只能是 " + SELLER_STATS, "Invalid projection");
+        }
+        return sellerStats.rebuild();
+    }
+
+    @ReadOperation
+    public Map<String, Object> projection(@Selector String projection, @Selector Long sellerId) {
+        if (!SELLER_STATS.equals(projection)) {
+            return null;
+        }
+        return sellerStats.statsFor(sellerId);
+    }
+}
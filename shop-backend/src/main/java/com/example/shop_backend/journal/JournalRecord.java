@@ -0,0 +1,125 @@
+package com.example.shop_backend.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of one journal record. A replay reuses one instance for every record, so
+ * scanning allocates nothing unless a product name is asked for.
+ * <p>
+ * On disk a record is {@code int length, int crc32c, long seq, long timestamp, byte type, payload}
+ * (big-endian); length and CRC cover everything after the CRC, and a zero length ends a segment.
+ * Every payload starts with the order id:
+ * <ul>
+ *   <li>{@link #ORDER_PLACED}: orderId, userId, createdAt, int n,
+ *       n x (productId, sellerId, int quantity, priceCents), n x (short length, UTF-8 product name)</li>
+ *   <li>{@link #STOCK_RESERVED}: orderId, int n, n x (productId, int quantity, int remaining)</li>
+ *   <li>{@link #ORDER_SHIPPED}, {@link #ORDER_RECEIVED}: orderId, at</li>
+ * </ul>
+ * Times are epoch milliseconds, reading LocalDateTime values as UTC; prices are in cents.
+ */
+public final class JournalRecord {
+
+    public static final byte ORDER_PLACED = 1;
+    public static final byte STOCK_RESERVED = 2;
+    public static final byte ORDER_SHIPPED = 3;
+    public static final byte ORDER_RECEIVED = 4;
+
+    /** Length and CRC. */
+    static final int HEADER = 8;
+    /** Sequence number, timestamp and type. */
+    static final int BODY_FIXED = 17;
+    static final int PLACED_FIXED = 28;
+    static final int PLACED_LINE = 28;
+    static final int STOCK_FIXED = 12;
+    static final int STOCK_LINE = 16;
+
+    private ByteBuffer buffer;
+    private int body;
+
+    void wrap(ByteBuffer buffer, int body) {
+        this.buffer = buffer;
+        this.body = body;
+    }
+
+    public long seq() {
+        return buffer.getLong(body);
+    }
+
+    /** When the record was appended. */
+    public long timestamp() {
+        return buffer.getLong(body + 8);
+    }
+
+    public byte type() {
+        return buffer.get(body + 16);
+    }
+
+    public long orderId() {
+        return buffer.getLong(payload());
+    }
+
+    /** {@link #ORDER_PLACED} only. */
+    public long userId() {
+        return buffer.getLong(payload() + 8);
+    }
+
+    /** {@link #ORDER_PLACED} only. */
+    public long createdAt() {
+        return buffer.getLong(payload() + 16);
+    }
+
+    /** {@link #ORDER_SHIPPED} and {@link #ORDER_RECEIVED} only. */
+    public long at() {
+        return buffer.getLong(payload() + 8);
+    }
+
+    /** Order lines of {@link #ORDER_PLACED}, or products of {@link #STOCK_RESERVED}. */
+    public int lineCount() {
+        return type() == STOCK_RESERVED ? buffer.getInt(payload() + 8) : buffer.getInt(payload() + 24);
+    }
+
+    public long productId(int line) {
+        return buffer.getLong(line(line));
+    }
+
+    public int quantity(int line) {
+        return buffer.getInt(line(line) + (type() == STOCK_RESERVED ? 8 : 16));
+    }
+
+    /** {@link #ORDER_PLACED} only. */
+    public long sellerId(int line) {
+        return buffer.getLong(line(line) + 8);
+    }
+
+    /** {@link #ORDER_PLACED} only. */
+    public long priceCents(int line) {
+        return buffer.getLong(line(line) + 20);
+    }
+
+    /** {@link #STOCK_RESERVED} only: stock left after the order. */
+    public int remaining(int line) {
+        return buffer.getInt(line(line) + 12);
+    }
+
+    /** {@link #ORDER_PLACED} only: the product name at the time of the order. */
+    public String productName(int line) {
+        int position = payload() + PLACED_FIXED + lineCount() * PLACED_LINE;
+        for (int i = 0; i < line; i++) {
+            position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+        }
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(position))];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int payload() {
+        return body + BODY_FIXED;
+    }
+
+    private int line(int line) {
+        return type() == STOCK_RESERVED
+                ? payload() + STOCK_FIXED + line * STOCK_LINE
+                : payload() + PLACED_FIXED + line * PLACED_LINE;
+    }
+}
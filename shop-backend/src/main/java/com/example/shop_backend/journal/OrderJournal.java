@@ -0,0 +1,567 @@
+package com.example.shop_backend.journal;
+
+import com.example.shop_backend.model.OrderStatus;
+import com.example.shop_backend.service.event.OrderPlacedEvent;
+import com.example.shop_backend.service.event.OrdersReceivedEvent;
+import com.example.shop_backend.service.event.StockReservedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of order events (placed, stock reserved, shipped, received), so analytics
+ * and rebuilds of derived data can replay them instead of scanning the OLTP tables.
+ * <p>
+ * Records (see {@link JournalRecord}) are appended to fixed-size memory-mapped segment files named
+ * after their first sequence number. Appending is a copy into the mapping under a lock; one flusher
+ * thread forces everything appended since its last flush in a single call (group commit), and
+ * appenders wait, up to {@code journal.max-flush-wait-ms}, until their record is durable. A full
+ * segment is forced before the next one is started.
+ * <p>
+ * Events are written after the database transaction commits, so the journal never holds an order
+ * that was rolled back. Orders placed on other nodes arrive through the change bus and are journaled
+ * too, so each node's journal covers every order placed while it was running; what it misses (orders
+ * from before the journal existed, or placed elsewhere while this node was down) is reported by
+ * {@link SellerStatsProjection}. On startup a torn tail left by a crash is detected by its CRC and cut
+ * off.
+ */
+@Component
+public class OrderJournal {
+
+    private static final String SUFFIX = ".journal";
+
+    @Value("${journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.dir:data/journal}")
+    private String directory;
+
+    @Value("${journal.segment-mb:64}")
+    private int segmentMb;
+
+    @Value("${journal.await-flush:true}")
+    private boolean awaitFlush;
+
+    @Value("${journal.max-flush-wait-ms:1000}")
+    private long maxFlushWaitMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final CRC32C crc = new CRC32C();
+
+    // Guarded by lock
+    private Path dir;
+    private final List<Path> segments = new ArrayList<>();
+    private MappedByteBuffer current;
+    private ByteBuffer crcView;
+    private int writePos;
+    private int flushedPos;
+    private long nextSeq = 1;
+    private long durableSeq;
+    private long lastPlacedOrderId;
+    private long appendedRecords;
+    private long flushes;
+    private long flushTimeouts;
+    private boolean closed = true;
+
+    private Thread flusher;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        dir = Path.of(directory);
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().forEach(segments::add);
+        }
+        if (segments.isEmpty()) {
+            startSegment(1);
+        } else {
+            recover();
+        }
+        closed = false;
+        flusher = Thread.ofPlatform().daemon().name("order-journal-flush").start(this::flushLoop);
+        System.out.printf("Order journal open: %s, %d segment(s), next seq %d%n", dir.toAbsolutePath(), segments.size(), nextSeq);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        lock.lock();
+        try {
+            current.force();
+            durableSeq = nextSeq - 1;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            awaitDurable(appendOrderPlaced(event));
+        } catch (RuntimeException e) {
+            System.out.println("订单日志写入失败: " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockReserved(StockReservedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Not waited for: the order's ORDER_PLACED record follows in the same commit and waiting
+            // for it covers this one
+            appendStockReserved(event);
+        } catch (RuntimeException e) {
+            System.out.println("订单日志写入失败: " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrdersReceived(OrdersReceivedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            awaitDurable(appendOrdersReceived(event));
+        } catch (RuntimeException e) {
+            System.out.println("订单日志写入失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes ORDER_PLACED, and ORDER_SHIPPED for orders that ship on creation. Like the other append
+     * methods it does not wait for the records to be durable, see {@link #awaitDurable(long)}.
+     *
+     * @return the sequence number of the last record written
+     */
+    public long appendOrderPlaced(OrderPlacedEvent event) {
+        List<OrderPlacedEvent.Line> lines = event.lines();
+        byte[][] names = new byte[lines.size()][];
+        int size = JournalRecord.PLACED_FIXED + lines.size() * JournalRecord.PLACED_LINE;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = utf8(lines.get(i).productName());
+            size += 2 + names[i].length;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size)
+                .putLong(event.orderId())
+                .putLong(event.userId())
+                .putLong(millis(event.createdAt()))
+                .putInt(lines.size());
+        for (OrderPlacedEvent.Line line : lines) {
+            payload.putLong(line.productId())
+                    .putLong(line.sellerId())
+                    .putInt(line.quantity())
+                    .putLong(cents(line.price()));
+        }
+        for (byte[] name : names) {
+            payload.putShort((short) name.length).put(name);
+        }
+        long seq = append(JournalRecord.ORDER_PLACED, payload.flip());
+        if (event.status() == OrderStatus.SHIPPED) {
+            // Orders ship when they are created
+            seq = append(JournalRecord.ORDER_SHIPPED, orderAt(event.orderId(), event.createdAt()));
+        }
+        return seq;
+    }
+
+    public long appendStockReserved(StockReservedEvent event) {
+        ByteBuffer payload = ByteBuffer.allocate(JournalRecord.STOCK_FIXED + event.lines().size() * JournalRecord.STOCK_LINE)
+                .putLong(event.orderId())
+                .putInt(event.lines().size());
+        for (StockReservedEvent.Line line : event.lines()) {
+            payload.putLong(line.productId()).putInt(line.quantity()).putInt(line.remaining());
+        }
+        return append(JournalRecord.STOCK_RESERVED, payload.flip());
+    }
+
+    public long appendOrdersReceived(OrdersReceivedEvent event) {
+        long seq = -1;
+        for (Long orderId : event.orderIds()) {
+            seq = append(JournalRecord.ORDER_RECEIVED, orderAt(orderId, event.receivedAt()));
+        }
+        return seq;
+    }
+
+    /**
+     * Visits every record in order, from the first segment up to what has been appended so far.
+     *
+     * @return the number of records visited
+     */
+    public long replay(Consumer<JournalRecord> visitor) {
+        Extent extent = extent();
+        JournalRecord record = new JournalRecord();
+        long[] count = {0};
+        for (int i = 0; i < extent.files().size(); i++) {
+            ByteBuffer buffer = mapReadOnly(extent.files().get(i));
+            int end = i == extent.files().size() - 1 ? extent.lastEnd() : buffer.capacity();
+            scan(buffer, end, record, r -> {
+                count[0]++;
+                visitor.accept(r);
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * Replays the segments in parallel, one accumulator per segment, and merges the accumulators in
+     * segment order. Records within a segment are applied in order; for projections whose result
+     * does not depend on order across segments (sums, counts, co-occurrence).
+     */
+    public <A> A replayParallel(int parallelism, Supplier<A> accumulator, BiConsumer<A, JournalRecord> apply,
+                                BinaryOperator<A> merge) {
+        Extent extent = extent();
+        List<Path> files = extent.files();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            return pool.submit(() -> IntStream.range(0, files.size()).parallel()
+                    .mapToObj(i -> {
+                        A acc = accumulator.get();
+                        ByteBuffer buffer = mapReadOnly(files.get(i));
+                        int end = i == files.size() - 1 ? extent.lastEnd() : buffer.capacity();
+                        scan(buffer, end, new JournalRecord(), r -> apply.accept(acc, r));
+                        return acc;
+                    })
+                    .reduce(merge)
+                    .orElseGet(accumulator)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("订单日志回放被中断", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Highest order id with an ORDER_PLACED record, 0 if none. */
+    public long lastPlacedOrderId() {
+        lock.lock();
+        try {
+            return lastPlacedOrderId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        if (!enabled) {
+            return status;
+        }
+        lock.lock();
+        try {
+            status.put("directory", dir.toAbsolutePath().toString());
+            status.put("segments", segments.size());
+            status.put("segmentBytes", current.capacity());
+            status.put("currentSegmentUsed", writePos);
+            status.put("lastSeq", nextSeq - 1);
+            status.put("durableSeq", durableSeq);
+            status.put("lastPlacedOrderId", lastPlacedOrderId);
+            status.put("appendedSinceStart", appendedRecords);
+            status.put("flushesSinceStart", flushes);
+            status.put("recordsPerFlush", flushes == 0 ? 0 : (double) appendedRecords / flushes);
+            status.put("flushWaitTimeouts", flushTimeouts);
+        } finally {
+            lock.unlock();
+        }
+        return status;
+    }
+
+    private long append(byte type, ByteBuffer payload) {
+        int length = JournalRecord.BODY_FIXED + payload.remaining();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("订单日志已关闭");
+            }
+            if (writePos + JournalRecord.HEADER + length > current.capacity()) {
+                if (JournalRecord.HEADER + length > current.capacity()) {
+                    throw new IllegalArgumentException("记录超过日志分段大小: " + length + " 字节");
+                }
+                rollSegment();
+            }
+            long seq = nextSeq++;
+            int body = writePos + JournalRecord.HEADER;
+            current.putLong(body, seq)
+                    .putLong(body + 8, System.currentTimeMillis())
+                    .put(body + 16, type)
+                    .put(body + JournalRecord.BODY_FIXED, payload, payload.position(), payload.remaining());
+            crc.reset();
+            crcView.limit(body + length).position(body);
+            crc.update(crcView);
+            current.putInt(writePos + 4, (int) crc.getValue());
+            // The length goes last: a zero length still marks the end if the rest was not written
+            current.putInt(writePos, length);
+            writePos += JournalRecord.HEADER + length;
+            appendedRecords++;
+            if (type == JournalRecord.ORDER_PLACED) {
+                lastPlacedOrderId = Math.max(lastPlacedOrderId, payload.getLong(payload.position()));
+            }
+            appended.signal();
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits, up to {@code journal.max-flush-wait-ms}, until every record up to {@code seq} is durable.
+     * One wait covers all the records appended before it.
+     */
+    public void awaitDurable(long seq) {
+        if (!awaitFlush || seq < 0) {
+            return;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(maxFlushWaitMs);
+        lock.lock();
+        try {
+            while (durableSeq < seq && !closed) {
+                if (remaining <= 0) {
+                    flushTimeouts++;
+                    return;
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces everything appended since the previous flush in one call. Records appended while a
+     * flush is running are picked up together by the next one.
+     */
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer segment;
+            int from;
+            int to;
+            long target;
+            lock.lock();
+            try {
+                while (!closed && durableSeq == nextSeq - 1) {
+                    appended.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                segment = current;
+                from = flushedPos;
+                to = writePos;
+                target = nextSeq - 1;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                segment.force(from, to - from);
+            } catch (RuntimeException e) {
+                System.out.println("订单日志刷盘失败: " + e.getMessage());
+            }
+            lock.lock();
+            try {
+                if (segment == current) {
+                    flushedPos = Math.max(flushedPos, to);
+                }
+                durableSeq = Math.max(durableSeq, target);
+                flushes++;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void rollSegment() {
+        // Everything in the full segment becomes durable before the next one is used
+        current.force();
+        durableSeq = nextSeq - 1;
+        flushed.signalAll();
+        startSegment(nextSeq);
+    }
+
+    private void startSegment(long firstSeq) {
+        Path path = dir.resolve(String.format("%020d%s", firstSeq, SUFFIX));
+        current = mapWritable(path, segmentMb * 1024L * 1024L);
+        crcView = current.duplicate();
+        segments.add(path);
+        writePos = 0;
+        flushedPos = 0;
+    }
+
+    /**
+     * Reopens the last segment for appending after the last record with a valid CRC, wiping whatever
+     * follows it, and finds the sequence number and last placed order to continue from.
+     */
+    private void recover() throws IOException {
+        Path last = segments.get(segments.size() - 1);
+        current = mapWritable(last, Math.max(segmentMb * 1024L * 1024L, Files.size(last)));
+        crcView = current.duplicate();
+        nextSeq = firstSeq(last);
+        JournalRecord record = new JournalRecord();
+        writePos = scan(current, current.capacity(), record, r -> {
+            nextSeq = r.seq() + 1;
+            if (r.type() == JournalRecord.ORDER_PLACED) {
+                lastPlacedOrderId = Math.max(lastPlacedOrderId, r.orderId());
+            }
+        });
+        if (writePos + 4 <= current.capacity() && current.getInt(writePos) != 0) {
+            for (int i = writePos; i < current.capacity(); i++) {
+                current.put(i, (byte) 0);
+            }
+            current.force();
+            System.out.println("订单日志尾部存在不完整记录，已从位置 " + writePos + " 截断: " + last.getFileName());
+        }
+        flushedPos = writePos;
+        durableSeq = nextSeq - 1;
+        // The orders in earlier segments are older unless the last one has none yet
+        for (int i = segments.size() - 2; i >= 0 && lastPlacedOrderId == 0; i--) {
+            long[] max = {0};
+            scan(mapReadOnly(segments.get(i)), (int) Files.size(segments.get(i)), record, r -> {
+                if (r.type() == JournalRecord.ORDER_PLACED) {
+                    max[0] = Math.max(max[0], r.orderId());
+                }
+            });
+            lastPlacedOrderId = max[0];
+        }
+    }
+
+    /**
+     * Visits the records with a valid CRC in {@code [0, end)} of a segment.
+     *
+     * @return the position after the last valid record
+     */
+    static int scan(ByteBuffer buffer, int end, JournalRecord record, Consumer<JournalRecord> visitor) {
+        CRC32C checksum = new CRC32C();
+        ByteBuffer view = buffer.duplicate();
+        int position = 0;
+        while (position + JournalRecord.HEADER <= end) {
+            int length = buffer.getInt(position);
+            if (length < JournalRecord.BODY_FIXED || length > end - position - JournalRecord.HEADER) {
+                break;
+            }
+            int body = position + JournalRecord.HEADER;
+            checksum.reset();
+            view.limit(body + length).position(body);
+            checksum.update(view);
+            if ((int) checksum.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            record.wrap(buffer, body);
+            visitor.accept(record);
+            position = body + length;
+        }
+        return position;
+    }
+
+    private Extent extent() {
+        lock.lock();
+        try {
+            if (!enabled || dir == null) {
+                throw new IllegalStateException("订单日志未启用");
+            }
+            return new Extent(List.copyOf(segments), writePos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Extent(List<Path> files, int lastEnd) {
+    }
+
+    private static MappedByteBuffer mapWritable(Path path, long size) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法映射订单日志分段 " + path, e);
+        }
+    }
+
+    private static ByteBuffer mapReadOnly(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法读取订单日志分段 " + path, e);
+        }
+    }
+
+    private static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static ByteBuffer orderAt(long orderId, LocalDateTime at) {
+        return ByteBuffer.allocate(16).putLong(orderId).putLong(millis(at)).flip();
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time == null ? 0 : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static long cents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static byte[] utf8(String name) {
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        // Names are stored with an unsigned 16-bit length
+        return bytes.length <= 0xFFFF ? bytes : Arrays.copyOf(bytes, 0xFFFF);
+    }
+}
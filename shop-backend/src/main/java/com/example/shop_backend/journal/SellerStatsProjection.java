@@ -0,0 +1,224 @@
+package com.example.shop_backend.journal;
+
+import com.example.shop_backend.util.LongObjectHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Seller statistics rebuilt from the order journal instead of order_items: revenue, orders, units
+ * and units per product name, in the same shape as {@code OrderService#getSellerStats}.
+ * <p>
+ * {@link #rebuild()} replays the journal in parallel, one partial result per segment, and swaps the
+ * result in; it reflects the journal as of the rebuild. The journal only holds orders placed while
+ * this node was running, so every result carries its coverage: the orders in the database up to the
+ * rebuild against those journaled, and {@code complete=false} when any are missing.
+ */
+@Component
+public class SellerStatsProjection {
+
+    @Autowired
+    private OrderJournal journal;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${journal.replay.parallelism:4}")
+    private int parallelism;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(LongObjectHashMap<SellerTotals> sellers, long records, long lastSeq, Coverage coverage) {
+    }
+
+    /**
+     * Orders in the database with ids up to {@code maxOrderId} when the rebuild started, those from
+     * the first journaled order on, and how many the journal holds in that range. Orders committed
+     * during the rebuild are left to the next one.
+     * <p>
+     * More journaled orders than the database has in the range means the journal holds orders that
+     * no longer exist, e.g. after data.sql reseeded the database under a persistent journal; the
+     * totals are then wrong, not just low.
+     */
+    private record Coverage(long databaseOrders, long databaseOrdersInRange, long journaledOrders, long maxOrderId,
+                            long firstJournaledOrderId) {
+
+        boolean complete() {
+            return journaledOrders == databaseOrdersInRange && databaseOrdersInRange == databaseOrders;
+        }
+
+        boolean inconsistent() {
+            return journaledOrders > databaseOrdersInRange;
+        }
+
+        long missingOrders() {
+            return databaseOrders - databaseOrdersInRange + Math.max(0, databaseOrdersInRange - journaledOrders);
+        }
+
+        String status() {
+            return inconsistent() ? "inconsistent" : complete() ? "complete" : "partial";
+        }
+
+        Map<String, Object> describe() {
+            Map<String, Object> coverage = new LinkedHashMap<>();
+            coverage.put("status", status());
+            coverage.put("complete", complete());
+            coverage.put("databaseOrders", databaseOrders);
+            coverage.put("journaledOrders", journaledOrders);
+            coverage.put("missingOrders", missingOrders());
+            coverage.put("unknownOrders", Math.max(0, journaledOrders - databaseOrdersInRange));
+            coverage.put("maxOrderId", maxOrderId);
+            coverage.put("firstJournaledOrderId", firstJournaledOrderId);
+            return coverage;
+        }
+    }
+
+    private static class SellerTotals {
+        long revenueCents;
+        int orders;
+        int units;
+        final Map<String, Long> productSales = new HashMap<>();
+
+        void add(SellerTotals other) {
+            revenueCents += other.revenueCents;
+            orders += other.orders;
+            units += other.units;
+            other.productSales.forEach((name, quantity) -> productSales.merge(name, quantity, Long::sum));
+        }
+    }
+
+    /** Totals of one segment, or of several merged. */
+    private static class Partial {
+        final LongObjectHashMap<SellerTotals> sellers = new LongObjectHashMap<>(256);
+        final long maxOrderId;
+        long records;
+        long lastSeq;
+        long placedOrders;
+        long firstOrderId;
+
+        /**
+         * @param maxOrderId highest order id in the database when the rebuild started; only orders up
+         *                   to it are counted towards the coverage
+         */
+        Partial(long maxOrderId) {
+            this.maxOrderId = maxOrderId;
+        }
+
+        void apply(JournalRecord record) {
+            records++;
+            lastSeq = Math.max(lastSeq, record.seq());
+            if (record.type() != JournalRecord.ORDER_PLACED) {
+                return;
+            }
+            long orderId = record.orderId();
+            if (orderId <= maxOrderId) {
+                placedOrders++;
+            }
+            firstOrderId = firstOrderId == 0 ? orderId : Math.min(firstOrderId, orderId);
+            int lines = record.lineCount();
+            for (int i = 0; i < lines; i++) {
+                long sellerId = record.sellerId(i);
+                SellerTotals totals = sellers.computeIfAbsent(sellerId, id -> new SellerTotals());
+                int quantity = record.quantity(i);
+                totals.revenueCents += record.priceCents(i) * quantity;
+                totals.units += quantity;
+                totals.productSales.merge(record.productName(i), (long) quantity, Long::sum);
+                if (!seenEarlier(record, i, sellerId)) {
+                    totals.orders++;
+                }
+            }
+        }
+
+        Partial merge(Partial other) {
+            other.sellers.forEach((sellerId, totals) -> {
+                SellerTotals mine = sellers.get(sellerId);
+                if (mine == null) {
+                    sellers.put(sellerId, totals);
+                } else {
+                    mine.add(totals);
+                }
+            });
+            records += other.records;
+            lastSeq = Math.max(lastSeq, other.lastSeq);
+            placedOrders += other.placedOrders;
+            if (firstOrderId == 0 || other.firstOrderId != 0 && other.firstOrderId < firstOrderId) {
+                firstOrderId = other.firstOrderId;
+            }
+            return this;
+        }
+
+        /** Whether an earlier line of the same order belongs to the seller; orders are counted once per seller. */
+        private static boolean seenEarlier(JournalRecord record, int line, long sellerId) {
+            for (int j = 0; j < line; j++) {
+                if (record.sellerId(j) == sellerId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public Map<String, Object> rebuild() {
+        long start = System.nanoTime();
+        // Read before the replay: everything counted here has committed, so its records are written
+        // unless the journal missed the order
+        Map<String, Object> orders = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS orders, COALESCE(MAX(id), 0) AS max_id FROM orders");
+        long databaseOrders = ((Number) orders.get("orders")).longValue();
+        long maxOrderId = ((Number) orders.get("max_id")).longValue();
+        Partial result = journal.replayParallel(parallelism, () -> new Partial(maxOrderId), Partial::apply, Partial::merge);
+        long inRange = result.firstOrderId == 0 || result.firstOrderId > maxOrderId ? 0 : jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE id BETWEEN ? AND ?", Long.class, result.firstOrderId, maxOrderId);
+        Coverage coverage = new Coverage(databaseOrders, inRange, result.placedOrders, maxOrderId, result.firstOrderId);
+        snapshot = new Snapshot(result.sellers, result.records, result.lastSeq, coverage);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("projection", "seller-stats");
+        summary.put("sellers", result.sellers.size());
+        summary.put("records", result.records);
+        summary.put("lastSeq", result.lastSeq);
+        summary.put("millis", Math.round(seconds * 1000));
+        summary.put("recordsPerSecond", seconds == 0 ? result.records : Math.round(result.records / seconds));
+        summary.put("coverage", coverage.describe());
+        if (coverage.inconsistent()) {
+            System.out.println("订单日志包含数据库中不存在的订单（数据库可能已被重新初始化），卖家统计不可信，请清空 "
+                    + "journal.dir 后重建");
+        } else if (!coverage.complete()) {
+            System.out.println("订单日志缺少 " + coverage.missingOrders() + " 个订单，卖家统计不完整");
+        }
+        System.out.println("Seller stats rebuilt from journal: " + summary);
+        return summary;
+    }
+
+    /**
+     * @return the seller's totals as of the last rebuild, or null if there has been none; {@code complete}
+     * is false when the journal is missing orders, in which case the totals are lower bounds, or holds
+     * orders the database does not ({@code coverage.status=inconsistent}), in which case they are wrong
+     */
+    public Map<String, Object> statsFor(long sellerId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        SellerTotals totals = current.sellers().get(sellerId);
+        if (totals == null) {
+            totals = new SellerTotals();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalRevenue", BigDecimal.valueOf(totals.revenueCents, 2));
+        stats.put("totalOrders", totals.orders);
+        stats.put("totalUnits", totals.units);
+        stats.put("productSales", totals.productSales);
+        stats.put("asOfSeq", current.lastSeq());
+        stats.put("complete", current.coverage().complete());
+        stats.put("coverage", current.coverage().describe());
+        return stats;
+    }
+}
@@ -9,7 +9,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "ix_orders_user_created", columnList = "user_id, created_at"),
+        @Index(name = "ix_orders_status_shipped", columnList = "status, shipped_at")
+})
 @Data
 public class Order {
     @Id
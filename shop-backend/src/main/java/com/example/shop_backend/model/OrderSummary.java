@@ -0,0 +1,97 @@
+package com.example.shop_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized one-row-per-order read model for the buyer's order history.
+ * Written in the same transaction as the {@link Order}; item details stay on the order itself.
+ */
+@Entity
+@Table(name = "order_summaries", indexes = {
+        @Index(name = "ix_order_summaries_user_created", columnList = "user_id, created_at, order_id")
+})
+@Data
+public class OrderSummary implements Persistable<Long> {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime shippedAt;
+
+    private LocalDateTime receivedAt;
+
+    /** Total units over all lines. */
+    @Column(nullable = false)
+    private Integer itemCount;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    /** Name and image of the first line, shown as the order's thumbnail. */
+    private String previewProductName;
+
+    private String previewImageUrl;
+
+    // The id is the order's id, so save() cannot tell a new row from an existing one by a null id
+    @Transient
+    @JsonIgnore
+    private boolean fresh = true;
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return orderId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+
+    public static OrderSummary of(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderId(order.getId());
+        summary.setUserId(order.getUser().getId());
+        summary.setStatus(order.getStatus());
+        summary.setCreatedAt(order.getCreatedAt());
+        summary.setShippedAt(order.getShippedAt());
+        summary.setReceivedAt(order.getReceivedAt());
+        int units = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            units += item.getQuantity();
+            total = total.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        summary.setItemCount(units);
+        summary.setTotalAmount(total);
+        if (!order.getItems().isEmpty()) {
+            Product first = order.getItems().get(0).getProduct();
+            summary.setPreviewProductName(first.getName());
+            summary.setPreviewImageUrl(first.getImageUrl());
+        }
+        return summary;
+    }
+}
@@ -3,8 +3,12 @@ package com.example.shop_backend.model;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "ix_products_seller", columnList = "seller_id")
+})
 @Data
 public class Product {
     @Id
@@ -17,8 +21,8 @@ public class Product {
     @Column(length = 1000)
     private String description;
 
-    @Column(nullable = false)
-    private Double price;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal price;
 
     private String imageUrl;
 
@@ -0,0 +1,272 @@
+package com.example.shop_backend.ratelimit;
+
+import com.example.shop_backend.util.RequestPaths;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.StreamReadFeature;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rate limits the write endpoints that hit the database hardest, before the request reaches
+ * Spring MVC, so a rejected request costs no transaction, connection or query.
+ * <p>
+ * Each route has a per-user and a per-IP budget. During a sale, products listed in
+ * {@code rate-limit.hot-products} additionally share one budget per product across all users.
+ * The user id comes from the path or from the {@code userId} field of the JSON body; the body is
+ * buffered, parsed with the application's {@link ObjectMapper} the way the controllers bind it, and
+ * replayed to the controller. Bodies too large to inspect are refused with 413, and bodies that do
+ * not parse, or repeat a field, with 400: otherwise the filter and the controller could disagree on
+ * which {@code userId} the request is for.
+ * Routes are matched on the decoded path, and {@code X-Real-IP} is only believed from
+ * {@code rate-limit.trusted-proxies}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern PURCHASE = Pattern.compile("^/api/products/(\\d{1,18})/purchase$");
+    private static final Pattern CHECKOUT = Pattern.compile("^/api/cart/(\\d{1,18})/checkout$");
+    private static final String CART_ADD = "/api/cart/add";
+    private static final int MAX_BUFFERED_BODY = 4096;
+
+    @Autowired
+    private RateLimiter limiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.trusted-proxies:}")
+    private String trustedProxySpec;
+
+    @Value("${rate-limit.cart-add.user:10,20}")
+    private String cartAddUser;
+    @Value("${rate-limit.cart-add.ip:50,100}")
+    private String cartAddIp;
+    @Value("${rate-limit.purchase.user:2,5}")
+    private String purchaseUser;
+    @Value("${rate-limit.purchase.ip:20,40}")
+    private String purchaseIp;
+    @Value("${rate-limit.checkout.user:1,3}")
+    private String checkoutUser;
+    @Value("${rate-limit.checkout.ip:10,20}")
+    private String checkoutIp;
+    @Value("${rate-limit.hot-product:100,100}")
+    private String hotProduct;
+    @Value("${rate-limit.hot-products:}")
+    private String hotProductIds;
+
+    private Route cartAdd;
+    private Route purchase;
+    private Route checkout;
+    private RateLimitPolicy hotProductPolicy;
+    private Set<Long> hotProducts;
+    private TrustedProxies trustedProxies;
+    private ObjectReader bodyReader;
+
+    @PostConstruct
+    void init() {
+        cartAdd = new Route(RateLimitPolicy.parse("cart-add.user", cartAddUser), RateLimitPolicy.parse("cart-add.ip", cartAddIp));
+        purchase = new Route(RateLimitPolicy.parse("purchase.user", purchaseUser), RateLimitPolicy.parse("purchase.ip", purchaseIp));
+        checkout = new Route(RateLimitPolicy.parse("checkout.user", checkoutUser), RateLimitPolicy.parse("checkout.ip", checkoutIp));
+        hotProductPolicy = RateLimitPolicy.parse("hot-product", hotProduct);
+        trustedProxies = new TrustedProxies(trustedProxySpec);
+        // The controllers bind these bodies to Map<String, Long>/Map<String, Integer>, where a repeated
+        // key keeps the last value
+        bodyReader = objectMapper.readerFor(new TypeReference<Map<String, Long>>() {
+        }).with(StreamReadFeature.STRICT_DUPLICATE_DETECTION);
+        hotProducts = new HashSet<>();
+        for (String id : hotProductIds.split(",")) {
+            if (!id.isBlank()) {
+                hotProducts.add(Long.parseLong(id.trim()));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Decoded and without ;-parameters, as Spring MVC matches it, so /api/cart/add;x is limited too
+        String path = RequestPaths.normalized(request);
+        Route route;
+        String userId = null;
+        String productId = null;
+        Matcher m;
+        if (path.equals(CART_ADD)) {
+            route = cartAdd;
+        } else if ((m = PURCHASE.matcher(path)).matches()) {
+            route = purchase;
+            productId = m.group(1);
+        } else if ((m = CHECKOUT.matcher(path)).matches()) {
+            route = checkout;
+            userId = m.group(1);
+        } else {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (userId == null) {
+            BufferedBodyRequest buffered = BufferedBodyRequest.wrap(request);
+            if (buffered == null) {
+                // A padded body would otherwise hide the user id from the per-user budget
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "请求体过大");
+                return;
+            }
+            request = buffered;
+            Map<String, Long> fields;
+            try {
+                fields = bodyReader.readValue(buffered.bytes);
+            } catch (JacksonException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "请求体格式错误");
+                return;
+            }
+            userId = text(fields, "userId");
+            if (productId == null) {
+                productId = text(fields, "productId");
+            }
+        }
+
+        long wait = 0;
+        if (route.ip() != null) {
+            wait = Math.max(wait, limiter.acquire(route.ip(), clientIp(request)));
+        }
+        if (wait == 0 && route.user() != null && userId != null) {
+            wait = Math.max(wait, limiter.acquire(route.user(), userId));
+        }
+        if (wait == 0 && hotProductPolicy != null && productId != null && hotProducts.contains(Long.parseLong(productId))) {
+            wait = Math.max(wait, limiter.acquire(hotProductPolicy, productId));
+        }
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("请求过于频繁，请稍后再试");
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustedProxies.contains(request.getRemoteAddr())) {
+            // Set by the nginx in front of the backend (see shop-frontend/nginx.conf)
+            String realIp = request.getHeader("X-Real-IP");
+            if (realIp != null && !realIp.isBlank()) {
+                return realIp.trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static String text(Map<String, Long> fields, String name) {
+        Long value = fields == null ? null : fields.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    private record Route(RateLimitPolicy user, RateLimitPolicy ip) {
+    }
+
+    /** Holds a small request body in memory so it can be inspected here and read again by the controller. */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] bytes;
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] bytes) {
+            super(request);
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return the buffered request, or null if the body is larger than {@link #MAX_BUFFERED_BODY}
+         */
+        static BufferedBodyRequest wrap(HttpServletRequest request) throws IOException {
+            if (request.getContentLengthLong() > MAX_BUFFERED_BODY) {
+                return null;
+            }
+            // Chunked bodies have no length: read one byte past the limit to detect oversize ones
+            byte[] bytes = request.getInputStream().readNBytes(MAX_BUFFERED_BODY + 1);
+            return bytes.length > MAX_BUFFERED_BODY ? null : new BufferedBodyRequest(request, bytes);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // Everything is already in memory: all of it is available at once
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.shop_backend.ratelimit;
+
+/**
+ * A bucket shape: {@code ratePerSecond} sustained, {@code burst} at once.
+ * Written in properties as {@code rate,burst}, e.g. {@code 10,20}; empty or {@code 0} disables it.
+ */
+public record RateLimitPolicy(String name, double ratePerSecond, int burst) {
+
+    public static RateLimitPolicy parse(String name, String spec) {
+        if (spec == null || spec.isBlank() || spec.trim().equals("0")) {
+            return null;
+        }
+        String[] parts = spec.split(",");
+        try {
+            double rate = Double.parseDouble(parts[0].trim());
+            int burst = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : (int) Math.ceil(rate);
+            if (rate <= 0 || burst < 1) {
+                return null;
+            }
+            return new RateLimitPolicy(name, rate, burst);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("限流配置格式错误 " + name + "=" + spec + "，应为 速率,突发量");
+        }
+    }
+}
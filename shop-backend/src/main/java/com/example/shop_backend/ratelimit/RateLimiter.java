@@ -0,0 +1,54 @@
+package com.example.shop_backend.ratelimit;
+
+import com.example.shop_backend.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets keyed by policy and client key, in a map bounded to {@code rate-limit.max-keys}.
+ * Full buckets are swept out regularly, which is lossless for GCRA buckets. If the map still fills
+ * up (e.g. many spoofed keys), new keys share one overflow bucket per policy instead of growing it.
+ */
+@Component
+public class RateLimiter {
+
+    @Value("${rate-limit.max-keys:200000}")
+    private int maxKeys;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> overflow = new ConcurrentHashMap<>();
+
+    /**
+     * @return 0 if the request may proceed, otherwise the nanoseconds until it would be allowed
+     */
+    public long acquire(RateLimitPolicy policy, String key) {
+        long now = System.nanoTime();
+        String bucketKey = policy.name() + ':' + key;
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                bucket = overflow.computeIfAbsent(policy.name(), n -> newBucket(policy, now));
+            } else {
+                bucket = buckets.computeIfAbsent(bucketKey, k -> newBucket(policy, now));
+            }
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:10000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    private static TokenBucket newBucket(RateLimitPolicy policy, long now) {
+        return new TokenBucket(policy.ratePerSecond(), policy.burst(), now);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.shop_backend.ratelimit;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Addresses whose {@code X-Real-IP} header is believed: exact IPs or CIDR blocks such as
+ * {@code 172.28.0.10} or {@code 10.0.0.0/8}. Anyone else could rotate the header to get a fresh
+ * per-IP budget on every request.
+ */
+final class TrustedProxies {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private record Block(byte[] network, int prefix) {
+    }
+
+    private final List<Block> blocks = new ArrayList<>();
+
+    TrustedProxies(String spec) {
+        for (String entry : spec.split(",")) {
+            String value = entry.trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            int slash = value.indexOf('/');
+            byte[] address = parse(slash < 0 ? value : value.substring(0, slash));
+            int prefix = slash < 0 ? address.length * 8 : Integer.parseInt(value.substring(slash + 1));
+            if (prefix < 0 || prefix > address.length * 8) {
+                throw new IllegalStateException("rate-limit.trusted-proxies 前缀长度无效: " + value);
+            }
+            blocks.add(new Block(address, prefix));
+        }
+    }
+
+    boolean contains(String remoteAddr) {
+        if (blocks.isEmpty() || remoteAddr == null) {
+            return false;
+        }
+        byte[] address = literal(remoteAddr);
+        if (address == null) {
+            return false;
+        }
+        for (Block block : blocks) {
+            if (matches(block, address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(Block block, byte[] address) {
+        if (address.length != block.network().length) {
+            return false;
+        }
+        int bits = block.prefix();
+        for (int i = 0; bits > 0; i++, bits -= 8) {
+            int mask = bits >= 8 ? 0xFF : (0xFF << (8 - bits)) & 0xFF;
+            if ((address[i] & mask) != (block.network()[i] & mask)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] parse(String value) {
+        byte[] address = literal(value);
+        if (address == null) {
+            throw new IllegalStateException("rate-limit.trusted-proxies 只能填写 IP 或 CIDR: " + value);
+        }
+        return address;
+    }
+
+    /** Bytes of an IPv4 or IPv6 literal, or null; never resolves host names. */
+    private static byte[] literal(String value) {
+        if (!IPV4.matcher(value).matches() && value.indexOf(':') < 0) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(value).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
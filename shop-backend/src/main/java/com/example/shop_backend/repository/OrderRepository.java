@@ -3,12 +3,25 @@ package com.example.shop_backend.repository;
 import com.example.shop_backend.model.Order;
 import com.example.shop_backend.model.OrderStatus;
 import com.example.shop_backend.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    // Items are loaded in the same query so the orders can be serialized without an open session
+    @EntityGraph(attributePaths = "items")
     List<Order> findByUser(User user);
-    List<Order> findByStatusAndShippedAtBefore(OrderStatus status, LocalDateTime time);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    // Orders shipped before the cutoff, split into id shards so several nodes can share the auto-receive sweep
+    @Query("select o from Order o where o.status = :status and o.shippedAt < :time and mod(o.id, :shards) = :shard")
+    List<Order> findShippedBefore(@Param("status") OrderStatus status, @Param("time") LocalDateTime time,
+                                  @Param("shards") int shards, @Param("shard") int shard);
 }
@@ -0,0 +1,32 @@
+package com.example.shop_backend.repository;
+
+import com.example.shop_backend.model.OrderStatus;
+import com.example.shop_backend.model.OrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    // Both pages are a single backwards range scan of ix_order_summaries_user_created
+    @Query(value = "SELECT * FROM order_summaries WHERE user_id = :userId"
+            + " ORDER BY created_at DESC, order_id DESC LIMIT :limit", nativeQuery = true)
+    List<OrderSummary> findLatest(@Param("userId") Long userId, @Param("limit") int limit);
+
+    // Spelled out instead of (created_at, order_id) < (?, ?), which MySQL does not turn into an index range
+    @Query(value = "SELECT * FROM order_summaries WHERE user_id = :userId"
+            + " AND (created_at < :createdAt OR (created_at = :createdAt AND order_id < :orderId))"
+            + " ORDER BY created_at DESC, order_id DESC LIMIT :limit", nativeQuery = true)
+    List<OrderSummary> findBefore(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("orderId") Long orderId, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update OrderSummary s set s.status = :status, s.receivedAt = :receivedAt where s.orderId in :orderIds")
+    int markReceived(@Param("orderIds") Collection<Long> orderIds, @Param("status") OrderStatus status,
+                     @Param("receivedAt") LocalDateTime receivedAt);
+}
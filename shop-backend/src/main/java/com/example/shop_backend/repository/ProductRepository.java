@@ -2,12 +2,24 @@ package com.example.shop_backend.repository;
 
 import com.example.shop_backend.model.Product;
 import com.example.shop_backend.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findBySeller(User seller);
+
+    @Query("select p from Product p where (:minPrice is null or p.price >= :minPrice)"
+            + " and (:maxPrice is null or p.price <= :maxPrice)"
+            + " and (:inStock = false or p.stockQuantity is null or p.stockQuantity > 0)"
+            + " and (:sellerId is null or p.seller.id = :sellerId)")
+    Page<Product> filter(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                         @Param("inStock") boolean inStock, @Param("sellerId") Long sellerId, Pageable pageable);
 }
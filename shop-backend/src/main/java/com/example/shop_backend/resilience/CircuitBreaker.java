@@ -0,0 +1,174 @@
+package com.example.shop_backend.resilience;
+
+/**
+ * Count-based circuit breaker over the outcomes of the last {@code windowSize} calls.
+ * <p>
+ * It opens when, after at least {@code minimumCalls}, the share of failed calls or of calls slower
+ * than {@code slowCallNanos} reaches its threshold. While open every call is refused. After
+ * {@code openNanos} it lets {@code probes} calls through (half-open): if they all succeed in time it
+ * closes, otherwise it opens again. A probe still outstanding {@code slowCallNanos} after it was let
+ * through would count as slow whenever it returns, so the breaker does not wait for it: the next call
+ * asked for after that opens it again. Otherwise a hung probe would keep it half-open, refusing every
+ * call, for as long as the database connection hangs. Times are passed in, as with
+ * {@link com.example.shop_backend.util.TokenBucket}.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte OK = 0;
+    private static final byte SLOW = 1;
+    private static final byte FAILED = 2;
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int probes;
+
+    /** Ring buffer of recent outcomes. */
+    private final byte[] window;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int probesIssued;
+    private int probesSucceeded;
+    /** When the last probe issued turns slow. */
+    private long probesDueBy;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowRateThreshold, long slowCallNanos, long openNanos, int probes) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || probes < 1) {
+            throw new IllegalArgumentException("invalid circuit breaker window");
+        }
+        this.name = name;
+        this.window = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowRateThreshold = slowRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.probes = probes;
+    }
+
+    /**
+     * Asks to make one call. Every permitted call must be reported to {@link #onSuccess} or {@link #onFailure}.
+     */
+    public synchronized boolean tryAcquirePermission(long nowNanos) {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (nowNanos - openUntil < 0) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesIssued = 0;
+            probesSucceeded = 0;
+        }
+        if (probesIssued < probes) {
+            probesIssued++;
+            probesDueBy = nowNanos + slowCallNanos;
+            return true;
+        }
+        if (nowNanos - probesDueBy >= 0) {
+            open(nowNanos, "probe timed out");
+        }
+        return false;
+    }
+
+    public synchronized void onSuccess(long nowNanos, long elapsedNanos) {
+        boolean slow = elapsedNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (slow) {
+                open(nowNanos, "slow probe");
+            } else if (++probesSucceeded >= probes) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(slow ? SLOW : OK, nowNanos);
+        }
+    }
+
+    public synchronized void onFailure(long nowNanos) {
+        if (state == State.HALF_OPEN) {
+            open(nowNanos, "failed probe");
+        } else if (state == State.CLOSED) {
+            record(FAILED, nowNanos);
+        }
+    }
+
+    /**
+     * True while calls are being refused outright, i.e. open and not yet due for probing.
+     */
+    public synchronized boolean isOpen(long nowNanos) {
+        return state == State.OPEN && nowNanos - openUntil < 0;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Nanoseconds until the breaker starts probing, 0 unless it is open.
+     */
+    public synchronized long remainingOpenNanos(long nowNanos) {
+        return state == State.OPEN ? Math.max(0, openUntil - nowNanos) : 0;
+    }
+
+    private void record(byte outcome, long nowNanos) {
+        if (recorded == window.length) {
+            forget(window[position]);
+        } else {
+            recorded++;
+        }
+        window[position] = outcome;
+        position = (position + 1) % window.length;
+        if (outcome == FAILED) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+        if (recorded >= minimumCalls) {
+            if (failures >= failureRateThreshold * recorded) {
+                open(nowNanos, failures + "/" + recorded + " failed");
+            } else if (slowCalls >= slowRateThreshold * recorded) {
+                open(nowNanos, slowCalls + "/" + recorded + " slow");
+            }
+        }
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == FAILED) {
+            failures--;
+        } else if (outcome == SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private void open(long nowNanos, String reason) {
+        state = State.OPEN;
+        openUntil = nowNanos + openNanos;
+        reset();
+        System.out.println("熔断器 " + name + " 打开 (" + reason + ")，" + openNanos / 1_000_000 + "ms 后试探恢复");
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        reset();
+        System.out.println("熔断器 " + name + " 已恢复");
+    }
+
+    private void reset() {
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.shop_backend.resilience;
+
+/**
+ * Thrown instead of waiting on the database when it is known to be failing or when the
+ * endpoint's bulkhead is full and no snapshot can be served. Answered with 503 and Retry-After
+ * by {@link DegradedModeAdvice}.
+ */
+public class DatabaseUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public DatabaseUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
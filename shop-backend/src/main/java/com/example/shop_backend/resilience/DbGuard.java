@@ -0,0 +1,272 @@
+package com.example.shop_backend.resilience;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps requests from piling up on a slow or unreachable database.
+ * <ul>
+ *   <li>Each endpoint class has its own bulkhead, so slow order-history queries cannot take all
+ *       the connections that catalog reads need. A request waits at most {@code max-wait-ms} for it.</li>
+ *   <li>One circuit breaker, fed by the latency and errors of every guarded call, stops sending
+ *       requests to the database while it is failing and probes it again after a while.</li>
+ *   <li>Reads keep their last successful result in a {@link SnapshotStore}. When the call is refused
+ *       or fails, that result is served instead and the response is marked stale by
+ *       {@link DegradedModeAdvice}. Without one, an optional fallback (e.g. the in-memory catalog
+ *       index) is tried before failing with {@link DatabaseUnavailableException}.</li>
+ *   <li>Writes are never served from a snapshot: they fail fast with {@link DatabaseUnavailableException}.
+ *       A write's transaction calls {@link #timeUntilCommit()} so the breaker sees the database work
+ *       only, not the after-commit listeners (journal flush, seller feed) that run before it returns.</li>
+ * </ul>
+ * Business errors thrown by a guarded call pass through and count as a database response.
+ */
+@Component
+public class DbGuard {
+
+    /** Endpoint classes, each with its own bulkhead. */
+    public enum Pool { CATALOG, HISTORY, WRITE }
+
+    /** Request attribute holding the capture time (epoch millis, -1 if unknown) of the oldest stale data served. */
+    static final String STALE_ATTRIBUTE = DbGuard.class.getName() + ".staleSince";
+
+    @Value("${resilience.enabled:true}")
+    private boolean enabled;
+
+    @Value("${resilience.bulkhead.catalog:64}")
+    private int catalogPermits;
+    @Value("${resilience.bulkhead.history:16}")
+    private int historyPermits;
+    @Value("${resilience.bulkhead.write:32}")
+    private int writePermits;
+    @Value("${resilience.bulkhead.max-wait-ms:100}")
+    private long maxWaitMs;
+
+    @Value("${resilience.breaker.window:50}")
+    private int window;
+    @Value("${resilience.breaker.minimum-calls:10}")
+    private int minimumCalls;
+    @Value("${resilience.breaker.failure-rate:0.5}")
+    private double failureRate;
+    @Value("${resilience.breaker.slow-rate:0.5}")
+    private double slowRate;
+    @Value("${resilience.breaker.slow-call-ms:1000}")
+    private long slowCallMs;
+    @Value("${resilience.breaker.open-ms:10000}")
+    private long openMs;
+    @Value("${resilience.breaker.probes:3}")
+    private int probes;
+
+    @Value("${resilience.snapshot.max-entries:20000}")
+    private int snapshotMaxEntries;
+    @Value("${resilience.snapshot.max-rows:50000}")
+    private long snapshotMaxRows;
+    @Value("${resilience.snapshot.refresh-ms:1000}")
+    private long snapshotRefreshMs;
+
+    /** End of the database work of the {@link #write} running on this thread, 0 until its transaction commits. */
+    private static final ThreadLocal<long[]> WRITE_COMMITTED_AT = new ThreadLocal<>();
+
+    private final Map<Pool, Semaphore> bulkheads = new EnumMap<>(Pool.class);
+    private CircuitBreaker breaker;
+    private SnapshotStore snapshots;
+
+    @PostConstruct
+    public void init() {
+        bulkheads.put(Pool.CATALOG, new Semaphore(catalogPermits));
+        bulkheads.put(Pool.HISTORY, new Semaphore(historyPermits));
+        bulkheads.put(Pool.WRITE, new Semaphore(writePermits));
+        breaker = new CircuitBreaker("database", window, minimumCalls, failureRate, slowRate,
+                TimeUnit.MILLISECONDS.toNanos(slowCallMs), TimeUnit.MILLISECONDS.toNanos(openMs), probes);
+        snapshots = new SnapshotStore(snapshotMaxEntries, snapshotMaxRows, TimeUnit.MILLISECONDS.toNanos(snapshotRefreshMs));
+    }
+
+    public <T> T read(Pool pool, String key, Supplier<T> loader) {
+        return read(pool, key, loader, null);
+    }
+
+    /**
+     * Runs a read, falling back to the last result stored under {@code key}, then to
+     * {@code fallback} (which may return null), when the database is not available.
+     */
+    public <T> T read(Pool pool, String key, Supplier<T> loader, Supplier<T> fallback) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Semaphore bulkhead = bulkheads.get(pool);
+        if (!enter(bulkhead)) {
+            return stale(key, fallback, "服务繁忙，请稍后再试", null);
+        }
+        try {
+            long start = System.nanoTime();
+            if (!breaker.tryAcquirePermission(start)) {
+                return stale(key, fallback, "数据库暂不可用，请稍后再试", null);
+            }
+            T value;
+            try {
+                value = call(loader, start, null);
+            } catch (DataAccessException | TransactionException e) {
+                return stale(key, fallback, "数据库暂不可用，请稍后再试", e);
+            }
+            snapshots.put(key, value, weightOf(value), System.nanoTime());
+            return value;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Runs a write, failing fast instead of waiting while the database is known to be failing.
+     */
+    public <T> T write(Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        Semaphore bulkhead = bulkheads.get(Pool.WRITE);
+        if (!enter(bulkhead)) {
+            throw unavailable("服务繁忙，请稍后再试", null);
+        }
+        try {
+            long start = System.nanoTime();
+            if (!breaker.tryAcquirePermission(start)) {
+                throw unavailable("数据库暂不可用，请稍后再试", null);
+            }
+            long[] committedAt = {0};
+            WRITE_COMMITTED_AT.set(committedAt);
+            try {
+                return call(action, start, committedAt);
+            } catch (DataAccessException | TransactionException e) {
+                throw unavailable("数据库暂不可用，请稍后再试", e);
+            } finally {
+                WRITE_COMMITTED_AT.remove();
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Called inside the transaction of a {@link #write}: the call is then timed up to the commit,
+     * before any after-commit listener runs. Does nothing outside a guarded write.
+     */
+    public void timeUntilCommit() {
+        long[] committedAt = WRITE_COMMITTED_AT.get();
+        if (committedAt == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // Before the transactional event listeners' after-commit callbacks
+                return Integer.MIN_VALUE;
+            }
+
+            @Override
+            public void afterCommit() {
+                committedAt[0] = System.nanoTime();
+            }
+        });
+    }
+
+    /**
+     * True while the breaker is open, so writes that are not wrapped in {@link #write} can be refused up front.
+     */
+    public boolean writesBlocked() {
+        return enabled && breaker.isOpen(System.nanoTime());
+    }
+
+    public long retryAfterSeconds() {
+        long nanos = breaker.remainingOpenNanos(System.nanoTime());
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L));
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    /**
+     * Runs one permitted call and reports how it went to the breaker, timed up to
+     * {@code committedAt[0]} when the call's transaction recorded its commit.
+     */
+    private <T> T call(Supplier<T> action, long start, long[] committedAt) {
+        try {
+            T result = action.get();
+            long now = System.nanoTime();
+            long end = committedAt != null && committedAt[0] != 0 ? committedAt[0] : now;
+            breaker.onSuccess(now, end - start);
+            return result;
+        } catch (DataAccessException | TransactionException e) {
+            breaker.onFailure(System.nanoTime());
+            throw e;
+        } catch (RuntimeException | Error e) {
+            // A business error still means the database answered
+            long now = System.nanoTime();
+            breaker.onSuccess(now, now - start);
+            throw e;
+        }
+    }
+
+    private boolean enter(Semaphore bulkhead) {
+        try {
+            return bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T stale(String key, Supplier<T> fallback, String reason, RuntimeException cause) {
+        SnapshotStore.Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null) {
+            markStale(snapshot.capturedAtMillis());
+            return (T) snapshot.value();
+        }
+        if (fallback != null) {
+            T value = fallback.get();
+            if (value != null) {
+                markStale(-1);
+                return value;
+            }
+        }
+        throw unavailable(reason, cause);
+    }
+
+    private DatabaseUnavailableException unavailable(String reason, RuntimeException cause) {
+        return new DatabaseUnavailableException(reason, retryAfterSeconds(), cause);
+    }
+
+    private static void markStale(long capturedAtMillis) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Long previous = (Long) attributes.getAttribute(STALE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (previous == null || capturedAtMillis < previous) {
+            attributes.setAttribute(STALE_ATTRIBUTE, capturedAtMillis, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static int weightOf(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        return 1;
+    }
+}
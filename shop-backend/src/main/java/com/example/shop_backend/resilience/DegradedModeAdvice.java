@@ -0,0 +1,54 @@
+package com.example.shop_backend.resilience;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Marks responses built from snapshots with {@code X-Data-Stale: true}, a {@code Warning: 110}
+ * header and, when the capture time is known, {@code Age}; and answers
+ * {@link DatabaseUnavailableException} with 503 and {@code Retry-After}.
+ */
+@RestControllerAdvice
+public class DegradedModeAdvice implements ResponseBodyAdvice<Object> {
+
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public ResponseEntity<String> databaseUnavailable(DatabaseUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(e.getMessage());
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(DbGuard.STALE_ATTRIBUTE) instanceof Long capturedAt) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set("X-Data-Stale", "true");
+            headers.set("Warning", "110 - \"Response is Stale\"");
+            if (capturedAt >= 0) {
+                headers.set(HttpHeaders.AGE, Long.toString(Math.max(0, (System.currentTimeMillis() - capturedAt) / 1000)));
+            }
+        }
+        return body;
+    }
+}
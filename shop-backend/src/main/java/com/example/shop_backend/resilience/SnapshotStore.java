@@ -0,0 +1,78 @@
+package com.example.shop_backend.resilience;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last known good results of guarded reads, served while the database is unavailable.
+ * <p>
+ * Bounded by entry count and by total weight (the number of rows held). A snapshot younger than
+ * {@code refreshNanos} is not replaced, so hot keys do not write to the map on every read. When a
+ * bound is exceeded arbitrary entries are evicted; hot keys come back on their next read.
+ */
+public final class SnapshotStore {
+
+    public record Snapshot(Object value, long capturedAtMillis, long capturedAtNanos, int weight) {
+    }
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long refreshNanos;
+    private final ConcurrentHashMap<String, Snapshot> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalWeight = new AtomicLong();
+
+    public SnapshotStore(int maxEntries, long maxWeight, long refreshNanos) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.refreshNanos = refreshNanos;
+    }
+
+    public Snapshot get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores a fresh result. Results heavier than a quarter of the total budget are not kept.
+     */
+    public void put(String key, Object value, int weight, long nowNanos) {
+        if (value == null) {
+            return;
+        }
+        Snapshot current = entries.get(key);
+        if (current != null && nowNanos - current.capturedAtNanos() < refreshNanos) {
+            return;
+        }
+        if (weight > maxWeight / 4) {
+            if (current != null && entries.remove(key, current)) {
+                totalWeight.addAndGet(-current.weight());
+            }
+            return;
+        }
+        Snapshot snapshot = new Snapshot(value, System.currentTimeMillis(), nowNanos, weight);
+        Snapshot previous = entries.put(key, snapshot);
+        totalWeight.addAndGet(weight - (previous == null ? 0 : previous.weight()));
+        if (entries.size() > maxEntries || totalWeight.get() > maxWeight) {
+            evict(key);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return totalWeight.get();
+    }
+
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Snapshot>> it = entries.entrySet().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || totalWeight.get() > maxWeight)) {
+            Map.Entry<String, Snapshot> entry = it.next();
+            if (!entry.getKey().equals(keep) && entries.remove(entry.getKey(), entry.getValue())) {
+                totalWeight.addAndGet(-entry.getValue().weight());
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.shop_backend.resilience;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Refuses every API write with 503 while the database circuit breaker is open, before the
+ * controller opens a transaction that would wait for a connection.
+ */
+@Component
+public class WriteGuardInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private DbGuard dbGuard;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        String method = request.getMethod();
+        if (method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS") || !dbGuard.writesBlocked()) {
+            return true;
+        }
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(dbGuard.retryAfterSeconds()));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("数据库暂不可用，请稍后再试");
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.shop_backend.service;
 
+import com.example.shop_backend.diagnostics.ShopEvents;
 import com.example.shop_backend.model.CartItem;
 import com.example.shop_backend.model.Product;
 import com.example.shop_backend.model.User;
@@ -37,21 +38,34 @@ public class CartService {
     }
 
     public CartItem addToCart(Long userId, Long productId, Integer quantity) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
-        Product product = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("商品不存在"));
+        ShopEvents.AddToCart event = new ShopEvents.AddToCart();
+        event.begin();
+        event.userId = userId;
+        event.productId = productId;
+        event.quantity = quantity == null ? 0 : quantity;
+        try {
+            User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
+            Product product = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("商品不存在"));
 
-        Optional<CartItem> existingItem = cartItemRepository.findByUserAndProductId(user, productId);
+            Optional<CartItem> existingItem = cartItemRepository.findByUserAndProductId(user, productId);
 
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + quantity);
-            return cartItemRepository.save(item);
-        } else {
-            CartItem item = new CartItem();
-            item.setUser(user);
-            item.setProduct(product);
-            item.setQuantity(quantity);
-            return cartItemRepository.save(item);
+            CartItem saved;
+            if (existingItem.isPresent()) {
+                CartItem item = existingItem.get();
+                item.setQuantity(item.getQuantity() + quantity);
+                event.merged = true;
+                saved = cartItemRepository.save(item);
+            } else {
+                CartItem item = new CartItem();
+                item.setUser(user);
+                item.setProduct(product);
+                item.setQuantity(quantity);
+                saved = cartItemRepository.save(item);
+            }
+            event.succeeded = true;
+            return saved;
+        } finally {
+            event.commit();
         }
     }
 
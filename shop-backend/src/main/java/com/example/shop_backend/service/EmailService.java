@@ -1,5 +1,6 @@
 package com.example.shop_backend.service;
 
+import com.example.shop_backend.diagnostics.ShopEvents;
 import com.example.shop_backend.model.Order;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
@@ -8,6 +9,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class EmailService {
@@ -17,24 +20,50 @@ public class EmailService {
     @Value("${spring.mail.username}")
     private String fromEmail;
 
+    /**
+     * Sends the confirmation on a virtual thread once the current transaction has committed, so a slow
+     * mail server neither holds the order transaction open nor delays the response. Nothing is sent
+     * if the transaction rolls back.
+     */
     public void sendOrderConfirmation(Order order) {
         if (order.getUser() == null || order.getUser().getEmail() == null) {
             System.out.println("邮件发送失败：用户邮箱为空");
             return;
         }
+        long orderId = order.getId() == null ? 0 : order.getId();
+        String email = order.getUser().getEmail();
+        Runnable send = () -> Thread.ofVirtual().name("order-mail-" + orderId).start(() -> send(orderId, email));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send.run();
+            }
+        });
+    }
 
+    private void send(long orderId, String email) {
+        ShopEvents.MailSend event = new ShopEvents.MailSend();
+        event.begin();
+        event.orderId = orderId;
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
             helper.setFrom(fromEmail, "mercuria1");
-            helper.setTo(order.getUser().getEmail());
+            helper.setTo(email);
             helper.setSubject("订单已发货 - Mercurial's Shop");
             helper.setText("您的订单已发货。\n如需确认收货，请回复该邮箱。\n感谢您的购买。");
             mailSender.send(message);
+            event.succeeded = true;
         } catch (MessagingException e) {
             System.out.println("邮件发送失败: " + e.getMessage());
         } catch (Exception e) {
             System.out.println("邮件发送异常: " + e.getMessage());
+        } finally {
+            event.commit();
         }
     }
 }
@@ -1,16 +1,33 @@
 package com.example.shop_backend.service;
 
+import com.example.shop_backend.controller.dto.OrderHistoryPage;
+import com.example.shop_backend.diagnostics.CommitTiming;
+import com.example.shop_backend.diagnostics.ShopEvents;
 import com.example.shop_backend.model.*;
 import com.example.shop_backend.repository.OrderItemRepository;
 import com.example.shop_backend.repository.OrderRepository;
+import com.example.shop_backend.repository.OrderSummaryRepository;
 import com.example.shop_backend.repository.ProductRepository;
 import com.example.shop_backend.repository.UserRepository;
+import com.example.shop_backend.resilience.DbGuard;
+import com.example.shop_backend.service.cluster.Lease;
+import com.example.shop_backend.service.cluster.LeaseService;
+import com.example.shop_backend.service.event.OrderPlacedEvent;
+import com.example.shop_backend.service.event.OrdersReceivedEvent;
+import com.example.shop_backend.service.event.ProductChangedEvent;
+import com.example.shop_backend.service.event.StockReservedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,6 +41,9 @@ public class OrderService {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -33,18 +53,67 @@ public class OrderService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DbGuard dbGuard;
+
+    @Value("${cluster.auto-receive.shards:1}")
+    private int autoReceiveShards;
+
     public List<Order> getOrdersByUser(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
-        return orderRepository.findByUser(user);
+        return dbGuard.read(DbGuard.Pool.HISTORY, "orders:user:" + userId, () -> {
+            User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
+            return orderRepository.findByUser(user);
+        });
     }
 
-    public Order getOrderForUser(Long orderId, Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
-        Order order = orderRepository.findById(orderId).orElseThrow(() -> new RuntimeException("订单不存在"));
-        if (!order.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("无权查看该订单");
+    /**
+     * Keyset-paginated order history, newest first, read from the order_summaries table.
+     * Pass the previous page's last (createdAt, id) as the cursor, or nulls for the first page.
+     * While the database is unavailable the last result for the same page is served through {@link DbGuard}.
+     */
+    public OrderHistoryPage getOrderHistory(Long userId, LocalDateTime beforeCreatedAt, Long beforeId, int size) {
+        if ((beforeCreatedAt == null) != (beforeId == null)) {
+            throw new RuntimeException("分页参数无效");
         }
-        return order;
+        String key = "history:" + userId + ":" + beforeCreatedAt + ":" + beforeId + ":" + size;
+        return dbGuard.read(DbGuard.Pool.HISTORY, key, () -> {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("用户不存在");
+            }
+            // Fetch one extra row to know whether another page exists
+            List<OrderSummary> rows = beforeId == null
+                    ? orderSummaryRepository.findLatest(userId, size + 1)
+                    : orderSummaryRepository.findBefore(userId, beforeCreatedAt, beforeId, size + 1);
+            OrderHistoryPage page = new OrderHistoryPage();
+            if (rows.size() > size) {
+                rows = rows.subList(0, size);
+                OrderSummary last = rows.get(size - 1);
+                page.setNextBeforeCreatedAt(last.getCreatedAt());
+                page.setNextBeforeId(last.getOrderId());
+            }
+            page.setItems(rows);
+            return page;
+        });
+    }
+
+    public Order getOrderForUser(Long orderId, Long userId) {
+        return dbGuard.read(DbGuard.Pool.HISTORY, "order:" + orderId + ":" + userId, () -> {
+            User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
+            Order order = orderRepository.findWithItemsById(orderId).orElseThrow(() -> new RuntimeException("订单不存在"));
+            if (!order.getUser().getId().equals(user.getId())) {
+                throw new RuntimeException("无权查看该订单");
+            }
+            return order;
+        });
     }
 
     public List<OrderItem> getOrdersBySeller(Long sellerId) {
@@ -54,81 +123,152 @@ public class OrderService {
 
     @Transactional
     public Order checkout(Long userId, List<CartItem> items) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
+        ShopEvents.Checkout event = new ShopEvents.Checkout();
+        event.begin();
+        event.userId = userId;
+        event.lines = items.size();
+        try {
+            CommitTiming.record("checkout");
+            dbGuard.timeUntilCommit();
+            User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
 
-        Order order = new Order();
-        order.setUser(user);
-        order.setStatus(OrderStatus.SHIPPED);
-        order.setCreatedAt(LocalDateTime.now());
-        order.setShippedAt(LocalDateTime.now());
+            Order order = new Order();
+            order.setUser(user);
+            order.setStatus(OrderStatus.SHIPPED);
+            order.setCreatedAt(LocalDateTime.now());
+            order.setShippedAt(LocalDateTime.now());
 
-        for (CartItem item : items) {
-            Product product = item.getProduct();
+            ShopEvents.OrderPhase stockPhase = beginPhase("checkout", "stock");
+            List<StockReservedEvent.Line> reserved = new ArrayList<>();
+            for (CartItem item : items) {
+                Product product = item.getProduct();
+                Integer stock = product.getStockQuantity();
+                if (stock != null) {
+                    int remaining = stock - item.getQuantity();
+                    if (remaining < 0) {
+                        throw new RuntimeException("库存不足");
+                    }
+                    product.setStockQuantity(remaining);
+                    productRepository.save(product);
+                    eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+                    reserved.add(new StockReservedEvent.Line(product.getId(), item.getQuantity(), remaining));
+                    stockPhase.rows++;
+                }
+
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setProduct(product);
+                orderItem.setSeller(product.getSeller());
+                orderItem.setQuantity(item.getQuantity());
+                orderItem.setPrice(product.getPrice());
+                order.getItems().add(orderItem);
+                event.units += item.getQuantity();
+            }
+            stockPhase.commit();
+
+            Order saved = insertOrder("checkout", order);
+            publishStockReserved(saved, reserved);
+            eventPublisher.publishEvent(OrderPlacedEvent.of(saved));
+            emailService.sendOrderConfirmation(saved);
+            event.orderId = saved.getId();
+            event.succeeded = true;
+            return saved;
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Transactional
+    public Order purchaseSingle(Long userId, Long productId, int quantity) {
+        ShopEvents.Purchase event = new ShopEvents.Purchase();
+        event.begin();
+        event.userId = userId;
+        event.productId = productId;
+        event.quantity = quantity;
+        try {
+            CommitTiming.record("purchase");
+            dbGuard.timeUntilCommit();
+            User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
+            Product product = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("商品不存在"));
+
+            ShopEvents.OrderPhase stockPhase = beginPhase("purchase", "stock");
+            List<StockReservedEvent.Line> reserved = new ArrayList<>();
             Integer stock = product.getStockQuantity();
             if (stock != null) {
-                int remaining = stock - item.getQuantity();
+                int remaining = stock - quantity;
                 if (remaining < 0) {
                     throw new RuntimeException("库存不足");
                 }
                 product.setStockQuantity(remaining);
                 productRepository.save(product);
+                eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+                reserved.add(new StockReservedEvent.Line(product.getId(), quantity, remaining));
+                stockPhase.rows = 1;
             }
+            stockPhase.commit();
+
+            Order order = new Order();
+            order.setUser(user);
+            order.setStatus(OrderStatus.SHIPPED);
+            order.setCreatedAt(LocalDateTime.now());
+            order.setShippedAt(LocalDateTime.now());
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
             orderItem.setSeller(product.getSeller());
-            orderItem.setQuantity(item.getQuantity());
+            orderItem.setQuantity(quantity);
             orderItem.setPrice(product.getPrice());
             order.getItems().add(orderItem);
+
+            Order saved = insertOrder("purchase", order);
+            publishStockReserved(saved, reserved);
+            eventPublisher.publishEvent(OrderPlacedEvent.of(saved));
+            emailService.sendOrderConfirmation(saved);
+            event.orderId = saved.getId();
+            event.succeeded = true;
+            return saved;
+        } finally {
+            event.commit();
         }
+    }
 
+    private Order insertOrder(String operation, Order order) {
+        ShopEvents.OrderPhase phase = beginPhase(operation, "insert");
         Order saved = orderRepository.save(order);
-        emailService.sendOrderConfirmation(saved);
+        orderSummaryRepository.save(OrderSummary.of(saved));
+        phase.rows = saved.getItems().size() + 2;
+        phase.commit();
         return saved;
     }
 
-    @Transactional
-    public Order purchaseSingle(Long userId, Long productId, int quantity) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("用户不存在"));
-        Product product = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("商品不存在"));
-
-        Integer stock = product.getStockQuantity();
-        if (stock != null) {
-            int remaining = stock - quantity;
-            if (remaining < 0) {
-                throw new RuntimeException("库存不足");
-            }
-            product.setStockQuantity(remaining);
-            productRepository.save(product);
+    /**
+     * Stock is decremented before the order row exists, so the event goes out once the order has its id.
+     */
+    private void publishStockReserved(Order order, List<StockReservedEvent.Line> reserved) {
+        if (!reserved.isEmpty()) {
+            eventPublisher.publishEvent(new StockReservedEvent(order.getId(), reserved));
         }
+    }
 
-        Order order = new Order();
-        order.setUser(user);
-        order.setStatus(OrderStatus.SHIPPED);
-        order.setCreatedAt(LocalDateTime.now());
-        order.setShippedAt(LocalDateTime.now());
-
-        OrderItem orderItem = new OrderItem();
-        orderItem.setOrder(order);
-        orderItem.setProduct(product);
-        orderItem.setSeller(product.getSeller());
-        orderItem.setQuantity(quantity);
-        orderItem.setPrice(product.getPrice());
-        order.getItems().add(orderItem);
-
-        Order saved = orderRepository.save(order);
-        emailService.sendOrderConfirmation(saved);
-        return saved;
+    private static ShopEvents.OrderPhase beginPhase(String operation, String name) {
+        ShopEvents.OrderPhase phase = new ShopEvents.OrderPhase();
+        phase.operation = operation;
+        phase.phase = name;
+        phase.begin();
+        return phase;
     }
 
     public Map<String, Object> getSellerStats(Long sellerId) {
+        ShopEvents.SellerStats event = new ShopEvents.SellerStats();
+        event.begin();
+        event.sellerId = sellerId;
         User seller = userRepository.findById(sellerId).orElseThrow(() -> new RuntimeException("卖家不存在"));
         List<OrderItem> items = orderItemRepository.findBySeller(seller);
 
-        double totalRevenue = items.stream()
-                .mapToDouble(item -> item.getPrice() * item.getQuantity())
-                .sum();
+        BigDecimal totalRevenue = items.stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         int totalOrders = (int) items.stream()
                 .map(item -> item.getOrder().getId())
@@ -142,6 +282,9 @@ public class OrderService {
         Map<String, Long> productSales = items.stream()
                 .collect(Collectors.groupingBy(item -> item.getProduct().getName(), Collectors.summingLong(OrderItem::getQuantity)));
 
+        event.itemRows = items.size();
+        event.orders = totalOrders;
+        event.commit();
         return Map.of(
                 "totalRevenue", totalRevenue,
                 "totalOrders", totalOrders,
@@ -150,15 +293,41 @@ public class OrderService {
         );
     }
 
+    /**
+     * Marks orders shipped more than 10 minutes ago as received. With several backend instances
+     * each one processes only the id shards it holds a lease for.
+     */
     @Scheduled(fixedRate = 60000)
-    @Transactional
     public void autoReceiveOrders() {
+        for (Lease lease : leaseService.acquireShards("auto-receive", autoReceiveShards)) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                leaseService.fence(lease);
+                receiveShippedOrders(lease.shard(), lease.shards());
+            });
+        }
+    }
+
+    private void receiveShippedOrders(int shard, int shards) {
+        ShopEvents.AutoReceiveSweep event = new ShopEvents.AutoReceiveSweep();
+        event.begin();
+        event.shard = shard;
+        event.shards = shards;
         LocalDateTime cutoff = LocalDateTime.now().minusMinutes(10);
-        List<Order> orders = orderRepository.findByStatusAndShippedAtBefore(OrderStatus.SHIPPED, cutoff);
+        List<Order> orders = orderRepository.findShippedBefore(OrderStatus.SHIPPED, cutoff, shards, shard);
+        if (orders.isEmpty()) {
+            event.commit();
+            return;
+        }
+        LocalDateTime receivedAt = LocalDateTime.now();
         for (Order order : orders) {
             order.setStatus(OrderStatus.RECEIVED);
-            order.setReceivedAt(LocalDateTime.now());
+            order.setReceivedAt(receivedAt);
             orderRepository.save(order);
         }
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        orderSummaryRepository.markReceived(orderIds, OrderStatus.RECEIVED, receivedAt);
+        eventPublisher.publishEvent(new OrdersReceivedEvent(orderIds, receivedAt));
+        event.orders = orders.size();
+        event.commit();
     }
 }
@@ -0,0 +1,453 @@
+package com.example.shop_backend.service;
+
+import com.example.shop_backend.controller.dto.ProductPage;
+import com.example.shop_backend.model.Product;
+import com.example.shop_backend.repository.ProductRepository;
+import com.example.shop_backend.service.event.ProductChangedEvent;
+import com.example.shop_backend.util.LongIntHashMap;
+import com.example.shop_backend.util.LongObjectHashMap;
+import com.example.shop_backend.util.RowBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar index over the catalog for price / stock / seller filtering.
+ * <p>
+ * Each product occupies a row slot in parallel primitive columns (id, price in cents,
+ * seller). Slots are kept in an array sorted by price, in-stock slots and the slots
+ * of each seller are kept in {@link RowBitmap}s. A filter is a binary search for the price
+ * range followed by a scan of that range, or, when one seller has far fewer products
+ * than the range, a scan of that seller's bitmap.
+ * <p>
+ * The index is loaded once at startup and then follows {@link ProductChangedEvent}s.
+ * Stock changes only flip a bitmap bit; price changes and inserts shift the sorted array.
+ * <p>
+ * After-commit listeners, and the change bus's reloads of remote changes, do not run in commit
+ * order, so an older snapshot of a product can arrive after a newer one. Each event is applied
+ * at once, so a request sees its own change, and its product is marked stale: a background
+ * refresher re-reads stale products from the database and indexes what it holds now. The last
+ * update of a product is therefore always a read made after its latest commit.
+ */
+@Service
+public class ProductFacetIndex {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+    private final List<ProductChangedEvent> pending = new ArrayList<>();
+    private volatile boolean ready;
+    private boolean loadFailed;
+    /** Ids whose indexed state may be older than the database; guarded by its own monitor. */
+    private final Set<Long> stale = new HashSet<>();
+
+    // Columns, indexed by slot
+    private long[] ids = new long[0];
+    private long[] priceCents = new long[0];
+    private long[] sellerIds = new long[0];
+    private Product[] products = new Product[0];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    /** Product id -> slot + 1 (0 means absent). */
+    private final LongIntHashMap slotOf = new LongIntHashMap(1024);
+    /** Live slots ordered by (price, id). */
+    private int[] byPrice = new int[0];
+    private int liveCount;
+    private final RowBitmap inStock = new RowBitmap();
+    private final LongObjectHashMap<RowBitmap> bySeller = new LongObjectHashMap<>(64);
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The indexed product, or null if it is unknown or the index is not loaded.
+     */
+    public Product find(long id) {
+        if (!ready) {
+            return null;
+        }
+        rw.readLock().lock();
+        try {
+            int slot = slotOf.get(id) - 1;
+            return slot < 0 ? null : products[slot];
+        } finally {
+            rw.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every indexed product ordered by id, or null if the index is not loaded.
+     */
+    public List<Product> all() {
+        if (!ready) {
+            return null;
+        }
+        List<Product> result = new ArrayList<>(liveCount);
+        rw.readLock().lock();
+        try {
+            for (int i = 0; i < liveCount; i++) {
+                result.add(products[byPrice[i]]);
+            }
+        } finally {
+            rw.readLock().unlock();
+        }
+        result.sort(Comparator.comparing(Product::getId));
+        return result;
+    }
+
+    /**
+     * @param minPrice   inclusive lower bound, or null
+     * @param maxPrice   inclusive upper bound, or null
+     * @param sellerId   only this seller's products, or null
+     * @param descending sort by price high to low instead of low to high
+     */
+    public ProductPage query(BigDecimal minPrice, BigDecimal maxPrice, boolean inStockOnly, Long sellerId,
+                             boolean descending, int page, int size) {
+        long min = minPrice == null ? Long.MIN_VALUE : minPrice.setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact();
+        long max = maxPrice == null ? Long.MAX_VALUE : maxPrice.setScale(2, RoundingMode.FLOOR).unscaledValue().longValueExact();
+        // page * size can exceed an int for a large page number
+        long offset = (long) page * size;
+        List<Product> items = new ArrayList<>(size);
+        long total = 0;
+
+        rw.readLock().lock();
+        try {
+            int lo = lowerBound(min);
+            int hi = upperBound(max);
+            RowBitmap seller = null;
+            if (sellerId != null) {
+                seller = bySeller.get(sellerId);
+                if (seller == null || lo >= hi) {
+                    return page(items, 0, page, size);
+                }
+            }
+            if (seller != null && seller.cardinality() < (hi - lo) / 4) {
+                // Selective seller: walk its rows and look up their place in the price order
+                int[] found = new int[seller.cardinality()];
+                int[] n = {0};
+                seller.forEach(slot -> {
+                    long p = priceCents[slot];
+                    if (p >= min && p <= max && (!inStockOnly || inStock.contains(slot))) {
+                        found[n[0]++] = positionOf(slot);
+                    }
+                });
+                int count = n[0];
+                Arrays.sort(found, 0, count);
+                total = count;
+                for (int i = (int) Math.min(offset, count); i < count && items.size() < size; i++) {
+                    items.add(products[byPrice[found[descending ? count - 1 - i : i]]]);
+                }
+            } else {
+                for (int i = 0; i < hi - lo; i++) {
+                    int slot = byPrice[descending ? hi - 1 - i : lo + i];
+                    if ((inStockOnly && !inStock.contains(slot)) || (seller != null && !seller.contains(slot))) {
+                        continue;
+                    }
+                    if (total >= offset && items.size() < size) {
+                        items.add(products[slot]);
+                    }
+                    total++;
+                }
+            }
+        } finally {
+            rw.readLock().unlock();
+        }
+        return page(items, total, page, size);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        rw.writeLock().lock();
+        try {
+            if (!ready) {
+                if (!loadFailed) {
+                    pending.add(event);
+                }
+                return;
+            }
+            apply(event);
+        } finally {
+            rw.writeLock().unlock();
+        }
+        markStale(event.productId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        Thread.ofVirtual().name("product-facet-index").start(() -> {
+            load();
+            if (ready) {
+                refreshLoop();
+            }
+        });
+    }
+
+    /**
+     * Re-reads the products marked stale and indexes their current state, removing those that no
+     * longer exist. On failure they stay marked.
+     */
+    void refreshStale() {
+        List<Long> batch;
+        synchronized (stale) {
+            batch = new ArrayList<>(stale);
+            stale.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Product> current;
+        try {
+            current = productRepository.findAllById(batch);
+        } catch (RuntimeException e) {
+            synchronized (stale) {
+                stale.addAll(batch);
+            }
+            throw e;
+        }
+        rw.writeLock().lock();
+        try {
+            Set<Long> found = new HashSet<>();
+            for (Product product : current) {
+                put(product);
+                found.add(product.getId());
+            }
+            for (Long id : batch) {
+                if (!found.contains(id)) {
+                    remove(id);
+                }
+            }
+        } finally {
+            rw.writeLock().unlock();
+        }
+    }
+
+    private void markStale(Long id) {
+        synchronized (stale) {
+            stale.add(id);
+            stale.notifyAll();
+        }
+    }
+
+    private void refreshLoop() {
+        while (true) {
+            try {
+                synchronized (stale) {
+                    while (stale.isEmpty()) {
+                        stale.wait();
+                    }
+                }
+                refreshStale();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("商品筛选索引刷新失败，稍后重试: " + e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        try {
+            List<Product> all = productRepository.findAll();
+            rw.writeLock().lock();
+            try {
+                for (Product product : all) {
+                    put(product);
+                }
+                // Changes committed while findAll was running may be older or newer than what it read,
+                // and so may the events among themselves: apply them, then re-read those products
+                for (ProductChangedEvent event : pending) {
+                    apply(event);
+                    markStale(event.productId());
+                }
+                pending.clear();
+                ready = true;
+            } finally {
+                rw.writeLock().unlock();
+            }
+            System.out.printf("Product facet index ready: %d products, %.1fs%n", liveCount, (System.nanoTime() - start) / 1e9);
+        } catch (RuntimeException e) {
+            // Stay on the database fallback; stop buffering events that would never be applied
+            rw.writeLock().lock();
+            try {
+                loadFailed = true;
+                pending.clear();
+            } finally {
+                rw.writeLock().unlock();
+            }
+            System.out.println("商品筛选索引加载失败: " + e.getMessage());
+        }
+    }
+
+    private void apply(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.productId());
+        } else {
+            put(event.product());
+        }
+    }
+
+    private void put(Product product) {
+        long id = product.getId();
+        long price = product.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        // A null stock means unlimited, the same as in OrderService
+        boolean available = product.getStockQuantity() == null || product.getStockQuantity() > 0;
+        long sellerId = product.getSeller().getId();
+
+        int slot = slotOf.get(id) - 1;
+        if (slot < 0) {
+            slot = allocateSlot();
+            slotOf.put(id, slot + 1);
+            ids[slot] = id;
+            priceCents[slot] = price;
+            sellerIds[slot] = sellerId;
+            insertByPrice(slot);
+            bySeller.computeIfAbsent(sellerId, s -> new RowBitmap()).add(slot);
+        } else {
+            if (priceCents[slot] != price) {
+                removeByPrice(slot);
+                priceCents[slot] = price;
+                insertByPrice(slot);
+            }
+            if (sellerIds[slot] != sellerId) {
+                bySeller.get(sellerIds[slot]).remove(slot);
+                sellerIds[slot] = sellerId;
+                bySeller.computeIfAbsent(sellerId, s -> new RowBitmap()).add(slot);
+            }
+        }
+        if (available) {
+            inStock.add(slot);
+        } else {
+            inStock.remove(slot);
+        }
+        products[slot] = product;
+    }
+
+    private void remove(long id) {
+        int slot = slotOf.get(id) - 1;
+        if (slot < 0) {
+            return;
+        }
+        removeByPrice(slot);
+        bySeller.get(sellerIds[slot]).remove(slot);
+        inStock.remove(slot);
+        slotOf.remove(id);
+        products[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == ids.length) {
+            int capacity = Math.max(1024, slotCount * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            sellerIds = Arrays.copyOf(sellerIds, capacity);
+            products = Arrays.copyOf(products, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void insertByPrice(int slot) {
+        if (liveCount == byPrice.length) {
+            byPrice = Arrays.copyOf(byPrice, Math.max(1024, liveCount * 2));
+        }
+        int pos = insertionPoint(priceCents[slot], ids[slot]);
+        System.arraycopy(byPrice, pos, byPrice, pos + 1, liveCount - pos);
+        byPrice[pos] = slot;
+        liveCount++;
+    }
+
+    private void removeByPrice(int slot) {
+        int pos = positionOf(slot);
+        System.arraycopy(byPrice, pos + 1, byPrice, pos, liveCount - pos - 1);
+        liveCount--;
+    }
+
+    /** Position of a live slot in {@link #byPrice}, found by its (price, id) key. */
+    private int positionOf(int slot) {
+        return insertionPoint(priceCents[slot], ids[slot]);
+    }
+
+    /** First position whose (price, id) is not less than the given key. */
+    private int insertionPoint(long price, long id) {
+        int lo = 0;
+        int hi = liveCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int s = byPrice[mid];
+            if (priceCents[s] < price || (priceCents[s] == price && ids[s] < id)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** First position with price >= {@code price}. */
+    private int lowerBound(long price) {
+        int lo = 0;
+        int hi = liveCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (priceCents[byPrice[mid]] < price) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** First position with price > {@code price}. */
+    private int upperBound(long price) {
+        int lo = 0;
+        int hi = liveCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (priceCents[byPrice[mid]] <= price) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static ProductPage page(List<Product> items, long total, int page, int size) {
+        ProductPage result = new ProductPage();
+        result.setItems(items);
+        result.setTotal(total);
+        result.setPage(page);
+        result.setSize(size);
+        return result;
+    }
+}
@@ -1,15 +1,29 @@
 package com.example.shop_backend.service;
 
+import com.example.shop_backend.controller.dto.ProductPage;
 import com.example.shop_backend.model.Product;
 import com.example.shop_backend.model.User;
 import com.example.shop_backend.repository.ProductRepository;
 import com.example.shop_backend.repository.UserRepository;
+import com.example.shop_backend.resilience.DbGuard;
+import com.example.shop_backend.service.event.ProductChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -20,30 +34,115 @@ public class ProductService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DbGuard dbGuard;
+
+    /**
+     * While the database is unavailable the read methods below serve their last result, or the
+     * facet index's copy of the catalog, through {@link DbGuard}.
+     */
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return dbGuard.read(DbGuard.Pool.CATALOG, "products:all", productRepository::findAll, facetIndex::all);
     }
 
     public List<Product> getProductsBySeller(Long sellerId) {
-        User seller = userRepository.findById(sellerId)
-                .orElseThrow(() -> new RuntimeException("卖家不存在"));
-        if (seller.getRole() != com.example.shop_backend.model.UserRole.SELLER) {
-            throw new RuntimeException("该账号不是销售管理");
+        return dbGuard.read(DbGuard.Pool.CATALOG, "products:seller:" + sellerId, () -> {
+            User seller = userRepository.findById(sellerId)
+                    .orElseThrow(() -> new RuntimeException("卖家不存在"));
+            if (seller.getRole() != com.example.shop_backend.model.UserRole.SELLER) {
+                throw new RuntimeException("该账号不是销售管理");
+            }
+            return productRepository.findBySeller(seller);
+        });
+    }
+
+    /**
+     * Filters the catalog by price range, availability and seller, ordered by price then id.
+     * Served from {@link ProductFacetIndex}; falls back to a database query while the index is still loading.
+     */
+    public ProductPage filterProducts(BigDecimal minPrice, BigDecimal maxPrice, boolean inStock, Long sellerId,
+                                      boolean descending, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new RuntimeException("分页参数无效");
         }
-        return productRepository.findBySeller(seller);
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new RuntimeException("价格区间无效");
+        }
+        if (facetIndex.isReady()) {
+            return facetIndex.query(minPrice, maxPrice, inStock, sellerId, descending, page, size);
+        }
+        String key = "products:filter:" + minPrice + ":" + maxPrice + ":" + inStock + ":" + sellerId
+                + ":" + descending + ":" + page + ":" + size;
+        return dbGuard.read(DbGuard.Pool.CATALOG, key, () -> {
+            Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Page<Product> result = productRepository.filter(minPrice, maxPrice, inStock, sellerId,
+                    PageRequest.of(page, size, Sort.by(direction, "price").and(Sort.by(direction, "id"))));
+            ProductPage productPage = new ProductPage();
+            productPage.setItems(result.getContent());
+            productPage.setTotal(result.getTotalElements());
+            productPage.setPage(page);
+            productPage.setSize(size);
+            return productPage;
+        });
     }
 
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return dbGuard.read(DbGuard.Pool.CATALOG, "product:" + id, () -> productRepository.findById(id), () -> {
+            Product indexed = facetIndex.find(id);
+            return indexed == null ? null : Optional.of(indexed);
+        });
+    }
+
+    /**
+     * Loads products in one query and returns them in the order of {@code ids}, skipping deleted ones.
+     */
+    public List<Product> getProductsByIds(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, Product> byId = dbGuard.read(DbGuard.Pool.CATALOG, "products:ids:" + Arrays.toString(ids),
+                () -> productRepository.findAllById(idList).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity())),
+                () -> facetIndex.isReady() ? indexedById(idList) : null);
+        List<Product> result = new ArrayList<>(ids.length);
+        for (Long id : idList) {
+            Product product = byId.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    private Map<Long, Product> indexedById(List<Long> ids) {
+        Map<Long, Product> byId = new HashMap<>();
+        for (Long id : ids) {
+            Product product = facetIndex.find(id);
+            if (product != null) {
+                byId.put(id, product);
+            }
+        }
+        return byId;
     }
 
+    @Transactional
     public Product createProduct(Product product, Long sellerId) {
         User seller = userRepository.findById(sellerId)
                 .orElseThrow(() -> new RuntimeException("卖家不存在"));
         product.setSeller(seller);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional
     public Optional<Product> updateProduct(Long id, Product productDetails) {
         return productRepository.findById(id).map(product -> {
             product.setName(productDetails.getName());
@@ -51,13 +150,17 @@ public class ProductService {
             product.setPrice(productDetails.getPrice());
             product.setImageUrl(productDetails.getImageUrl());
             product.setStockQuantity(productDetails.getStockQuantity());
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+            return saved;
         });
     }
 
+    @Transactional
     public boolean deleteProduct(Long id) {
         return productRepository.findById(id).map(product -> {
             productRepository.delete(product);
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
             return true;
         }).orElse(false);
     }
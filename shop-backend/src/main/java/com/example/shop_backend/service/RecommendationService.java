@@ -0,0 +1,394 @@
+package com.example.shop_backend.service;
+
+import com.example.shop_backend.journal.JournalRecord;
+import com.example.shop_backend.journal.OrderJournal;
+import com.example.shop_backend.service.event.OrderPlacedEvent;
+import com.example.shop_backend.service.recommendation.CooccurrenceMatrix;
+import com.example.shop_backend.service.recommendation.RelatedProducts;
+import com.example.shop_backend.util.LongObjectHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Frequently bought together" recommendations from a product co-occurrence matrix.
+ * <p>
+ * The matrix is built once at startup by a parallel fork-join scan of order_items and
+ * then kept current from committed orders. For every product a bounded top-K list is
+ * maintained alongside the matrix, so a lookup is a hash probe and an array copy.
+ * <p>
+ * The scan covers order ids up to the highest one committed when it starts, later ones are
+ * left to the event listener. An order with a lower id can still commit after that (its
+ * transaction was in flight), and the scan may or may not see it, so for ids in the scanned
+ * range the scan and the listener claim the order id first and only the winner counts it.
+ * Orders committed before the scan starts are held back until then.
+ * <p>
+ * With {@code recommendation.bootstrap.source=journal} the startup scan replays the
+ * {@link OrderJournal} instead of querying order_items. The journal holds only the orders placed
+ * while this node was running since it was enabled, so this suits a node whose journal is complete
+ * (see the coverage reported by {@code SellerStatsProjection}).
+ */
+@Service
+public class RecommendationService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderJournal journal;
+
+    @Value("${recommendation.top-k:20}")
+    private int topK;
+
+    @Value("${recommendation.bootstrap.enabled:true}")
+    private boolean bootstrapEnabled;
+
+    @Value("${recommendation.bootstrap.source:database}")
+    private String bootstrapSource;
+
+    @Value("${recommendation.bootstrap.parallelism:4}")
+    private int parallelism;
+
+    @Value("${recommendation.bootstrap.chunk-orders:50000}")
+    private int chunkOrders;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CooccurrenceMatrix matrix = new CooccurrenceMatrix(1024);
+    private LongObjectHashMap<RelatedProducts> related = new LongObjectHashMap<>(1024);
+
+    // Guarded by lock: null until the scan has read its range, meanwhile orders wait in pending
+    private OrderClaims claims;
+    private List<long[]> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    /**
+     * @return up to {@code limit} product ids most often bought together with {@code productId}
+     */
+    public long[] relatedProductIds(long productId, int limit) {
+        RelatedProducts list;
+        lock.readLock().lock();
+        try {
+            list = related.get(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return list == null ? new long[0] : list.ids(limit);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.lines().size() < 2) {
+            return;
+        }
+        long[] products = event.lines().stream().mapToLong(OrderPlacedEvent.Line::productId).toArray();
+        int count = distinct(products, products.length);
+        if (count < 2) {
+            return;
+        }
+        long[] order = new long[count + 1];
+        order[0] = event.orderId();
+        System.arraycopy(products, 0, order, 1, count);
+        lock.writeLock().lock();
+        try {
+            if (claims == null) {
+                pending.add(order);
+            } else {
+                applyOrder(order);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts an order the scan has not claimed, with the lock held.
+     *
+     * @param order the order id followed by its distinct product ids
+     */
+    private void applyOrder(long[] order) {
+        if (!claims.claim(order[0])) {
+            return;
+        }
+        long[] products = Arrays.copyOfRange(order, 1, order.length);
+        int count = products.length;
+        matrix.addOrder(products, count);
+        for (int i = 0; i < count; i++) {
+            var row = matrix.row(products[i]);
+            RelatedProducts current = related.get(products[i]);
+            if (current == null) {
+                current = RelatedProducts.fromRow(row, topK);
+            } else {
+                for (int j = 0; j < count; j++) {
+                    if (i != j) {
+                        current = current.withScore(products[j], row.get(products[j]), topK);
+                    }
+                }
+            }
+            related.put(products[i], current);
+        }
+    }
+
+    /**
+     * Sets the range the scan covers and applies the orders held back until now.
+     */
+    private void startClaiming(OrderClaims scanned) {
+        lock.writeLock().lock();
+        try {
+            claims = scanned;
+            for (long[] order : pending) {
+                applyOrder(order);
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBootstrap() {
+        if (topK < 1) {
+            throw new IllegalStateException("recommendation.top-k 必须大于 0");
+        }
+        if (!bootstrapEnabled) {
+            startClaiming(OrderClaims.NONE);
+            ready = true;
+            return;
+        }
+        Thread.ofVirtual().name("recommendation-bootstrap").start(this::bootstrap);
+    }
+
+    private void bootstrap() {
+        long start = System.nanoTime();
+        try {
+            long maxId;
+            CooccurrenceMatrix scanned;
+            if (bootstrapSource.equals("journal")) {
+                maxId = journal.lastPlacedOrderId();
+                OrderClaims range = new OrderClaims(1, maxId);
+                startClaiming(range);
+                scanned = replayJournal(maxId, range);
+            } else {
+                maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class);
+                Long minId = jdbcTemplate.queryForObject("SELECT COALESCE(MIN(id), 1) FROM orders", Long.class);
+                OrderClaims range = new OrderClaims(minId, maxId);
+                startClaiming(range);
+
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    scanned = pool.invoke(new ScanTask(minId, maxId + 1, range));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                matrix.mergeFrom(scanned);
+                LongObjectHashMap<RelatedProducts> rebuilt = new LongObjectHashMap<>(matrix.productCount());
+                matrix.forEachRow((product, row) -> rebuilt.put(product, RelatedProducts.fromRow(row, topK)));
+                related = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            System.out.printf("Recommendations ready: %d products, orders up to #%d, %.1fs%n",
+                    matrix.productCount(), maxId, (System.nanoTime() - start) / 1e9);
+        } catch (RuntimeException e) {
+            // Without the history, keep counting new orders rather than holding them back
+            lock.writeLock().lock();
+            try {
+                if (claims == null) {
+                    claims = OrderClaims.NONE;
+                    pending.forEach(this::applyOrder);
+                    pending = null;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            System.out.println("推荐数据初始化失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays the journal's ORDER_PLACED records, one matrix per segment. Orders above
+     * {@code highWater} were appended after it was read and are left to the listener.
+     */
+    private CooccurrenceMatrix replayJournal(long highWater, OrderClaims range) {
+        return journal.replayParallel(parallelism,
+                () -> new OrderLines(new CooccurrenceMatrix(256), range),
+                (lines, record) -> {
+                    if (record.type() != JournalRecord.ORDER_PLACED || record.orderId() > highWater) {
+                        return;
+                    }
+                    int count = record.lineCount();
+                    for (int i = 0; i < count; i++) {
+                        lines.add(record.orderId(), record.productId(i));
+                    }
+                    lines.flush();
+                },
+                (left, right) -> {
+                    if (left.target.productCount() < right.target.productCount()) {
+                        right.target.mergeFrom(left.target);
+                        return right;
+                    }
+                    left.target.mergeFrom(right.target);
+                    return left;
+                }).target;
+    }
+
+    /**
+     * Scans order ids in [from, to), splitting the range until each piece is one query.
+     */
+    private class ScanTask extends RecursiveTask<CooccurrenceMatrix> {
+        private final long from;
+        private final long to;
+        private final OrderClaims range;
+
+        ScanTask(long from, long to, OrderClaims range) {
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected CooccurrenceMatrix compute() {
+            if (to - from <= chunkOrders) {
+                return scan();
+            }
+            long mid = from + (to - from) / 2;
+            ScanTask left = new ScanTask(from, mid, range);
+            left.fork();
+            CooccurrenceMatrix right = new ScanTask(mid, to, range).compute();
+            CooccurrenceMatrix merged = left.join();
+            if (merged.productCount() < right.productCount()) {
+                right.mergeFrom(merged);
+                return right;
+            }
+            merged.mergeFrom(right);
+            return merged;
+        }
+
+        private CooccurrenceMatrix scan() {
+            CooccurrenceMatrix local = new CooccurrenceMatrix(256);
+            OrderLines lines = new OrderLines(local, range);
+            jdbcTemplate.query(
+                    "SELECT order_id, product_id FROM order_items WHERE order_id >= ? AND order_id < ? ORDER BY order_id",
+                    rs -> {
+                        lines.add(rs.getLong(1), rs.getLong(2));
+                    },
+                    from, to);
+            lines.flush();
+            return local;
+        }
+    }
+
+    /**
+     * Collects the product ids of consecutive rows that belong to the same order.
+     */
+    private static class OrderLines {
+        private final CooccurrenceMatrix target;
+        private final OrderClaims claims;
+        private long orderId;
+        private long[] products = new long[16];
+        private int size;
+
+        OrderLines(CooccurrenceMatrix target, OrderClaims claims) {
+            this.target = target;
+            this.claims = claims;
+        }
+
+        void add(long orderId, long productId) {
+            if (orderId != this.orderId) {
+                flush();
+                this.orderId = orderId;
+            }
+            if (size == products.length) {
+                products = Arrays.copyOf(products, size * 2);
+            }
+            products[size++] = productId;
+        }
+
+        void flush() {
+            if (size >= 2) {
+                int count = distinct(products, size);
+                if (count >= 2 && claims.claim(orderId)) {
+                    target.addOrder(products, count);
+                }
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * One bit per order id in the scanned range, set by whichever of the scan and the listener
+     * counts the order first. Ids outside the range are seen by the listener only.
+     */
+    private static final class OrderClaims {
+        static final OrderClaims NONE = new OrderClaims(1, 0);
+
+        private final long from;
+        private final long to;
+        private final AtomicLongArray bits;
+
+        /** Ids in [from, to]; empty when {@code to < from}. */
+        OrderClaims(long from, long to) {
+            this.from = from;
+            this.to = to;
+            this.bits = new AtomicLongArray(to < from ? 0 : Math.toIntExact((to - from + 64) >>> 6));
+        }
+
+        /**
+         * @return whether the caller is the first to claim {@code orderId} and should count it
+         */
+        boolean claim(long orderId) {
+            if (orderId < from || orderId > to) {
+                return true;
+            }
+            long offset = orderId - from;
+            int word = (int) (offset >>> 6);
+            long mask = 1L << offset;
+            while (true) {
+                long current = bits.get(word);
+                if ((current & mask) != 0) {
+                    return false;
+                }
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the first {@code size} ids and moves the distinct ones to the front.
+     *
+     * @return the number of distinct ids
+     */
+    private static int distinct(long[] ids, int size) {
+        Arrays.sort(ids, 0, size);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (count == 0 || ids[count - 1] != ids[i]) {
+                ids[count++] = ids[i];
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.shop_backend.service;
+
+import com.example.shop_backend.controller.dto.SellerFeedEvent;
+import com.example.shop_backend.controller.dto.SellerOrderItemResponse;
+import com.example.shop_backend.service.event.OrderPlacedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of committed orders to sellers connected over Server-Sent Events.
+ * <p>
+ * Every subscriber owns a bounded queue drained by its own virtual thread, so an idle
+ * connection costs a parked virtual thread and no platform thread. Publishing never
+ * blocks: if a subscriber's queue is full it is disconnected, and the browser's
+ * EventSource reconnects and reloads the dashboard.
+ * <p>
+ * An event sent to several subscribers is rendered once into an immutable frame; an
+ * {@code SseEventBuilder} is not thread-safe and appends to itself on every {@code build()}.
+ */
+@Service
+public class SellerFeedHub {
+
+    @Value("${seller-feed.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${seller-feed.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${seller-feed.max-subscribers:50000}")
+    private int maxSubscribers;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public SseEmitter subscribe(Long sellerId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RuntimeException("订阅连接数已满，请稍后再试");
+        }
+        Subscriber subscriber = new Subscriber(sellerId, new SseEmitter(timeoutMs));
+        subscribers.compute(sellerId, (id, set) -> {
+            Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(e -> subscriber.close());
+        subscriber.offer(frame(SseEmitter.event().name("ready").data("ok")));
+        subscriber.start();
+        return subscriber.emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        Map<Long, List<OrderPlacedEvent.Line>> linesBySeller = new LinkedHashMap<>();
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            linesBySeller.computeIfAbsent(line.sellerId(), id -> new ArrayList<>()).add(line);
+        }
+        linesBySeller.forEach((sellerId, lines) -> {
+            Set<Subscriber> targets = subscribers.get(sellerId);
+            if (targets == null || targets.isEmpty()) {
+                return;
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> message = frame(SseEmitter.event()
+                    .id(String.valueOf(event.orderId()))
+                    .name("order")
+                    .data(toFeedEvent(event, lines)));
+            for (Subscriber subscriber : targets) {
+                subscriber.offer(message);
+            }
+        });
+    }
+
+    /**
+     * Comment-only heartbeat, keeps proxies from closing idle streams and detects dead peers.
+     */
+    @Scheduled(fixedRate = 15000)
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = frame(SseEmitter.event().comment("ping"));
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.offer(ping);
+            }
+        }
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> frame(SseEmitter.SseEventBuilder builder) {
+        return Collections.unmodifiableSet(builder.build());
+    }
+
+    private SellerFeedEvent toFeedEvent(OrderPlacedEvent event, List<OrderPlacedEvent.Line> lines) {
+        List<SellerOrderItemResponse> items = new ArrayList<>(lines.size());
+        Map<String, Long> productSales = new LinkedHashMap<>();
+        BigDecimal revenue = BigDecimal.ZERO;
+        int units = 0;
+        for (OrderPlacedEvent.Line line : lines) {
+            SellerOrderItemResponse dto = new SellerOrderItemResponse();
+            dto.setOrderId(event.orderId());
+            dto.setOrderStatus(event.status().name());
+            dto.setOrderCreatedAt(event.createdAt());
+            dto.setProductId(line.productId());
+            dto.setProductName(line.productName());
+            dto.setQuantity(line.quantity());
+            dto.setPrice(line.price());
+            dto.setBuyerId(event.userId());
+            dto.setBuyerName(event.buyerName());
+            items.add(dto);
+
+            revenue = revenue.add(line.price().multiply(BigDecimal.valueOf(line.quantity())));
+            units += line.quantity();
+            productSales.merge(line.productName(), (long) line.quantity(), Long::sum);
+        }
+        SellerFeedEvent feed = new SellerFeedEvent();
+        feed.setItems(items);
+        feed.setTotalRevenue(revenue);
+        feed.setTotalOrders(1);
+        feed.setTotalUnits(units);
+        feed.setProductSales(productSales);
+        return feed;
+    }
+
+    private class Subscriber {
+        private final Long sellerId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Thread drainer;
+
+        Subscriber(Long sellerId, SseEmitter emitter) {
+            this.sellerId = sellerId;
+            this.emitter = emitter;
+        }
+
+        void start() {
+            drainer = Thread.ofVirtual().name("seller-feed-" + sellerId).start(this::drain);
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            if (!closed.get() && !queue.offer(message)) {
+                // Slow consumer: drop it rather than buffer without bound or block the publisher
+                emitter.complete();
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    emitter.send(queue.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(sellerId, (id, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+            Thread t = drainer;
+            if (t != null) {
+                t.interrupt();
+            }
+        }
+    }
+}
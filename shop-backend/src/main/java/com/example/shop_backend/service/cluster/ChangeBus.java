@@ -0,0 +1,198 @@
+package com.example.shop_backend.service.cluster;
+
+import com.example.shop_backend.repository.OrderRepository;
+import com.example.shop_backend.repository.ProductRepository;
+import com.example.shop_backend.service.event.OrderPlacedEvent;
+import com.example.shop_backend.service.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Propagates product and order changes to the other backend instances through the
+ * append-only {@code change_log} table, so their in-memory indexes and feeds stay current.
+ * <p>
+ * Local changes are appended in the same transaction that makes them. Every node polls for
+ * rows above its high-water mark, reloads the changed product or order and republishes it as a
+ * remote {@link ProductChangedEvent} / {@link OrderPlacedEvent}, which the existing listeners
+ * apply like a local one. Remote events are never written back, so changes do not loop.
+ * <p>
+ * Auto-increment ids are assigned at insert but become visible at commit, so a lower id can
+ * appear after a higher one was read. Skipped ids are remembered and re-checked until they show
+ * up or {@code gap-timeout-ms} passes (rolled-back transactions leave permanent holes).
+ */
+@Service
+public class ChangeBus {
+
+    static final String PRODUCT = "PRODUCT";
+    static final String ORDER = "ORDER";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterNode node;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cluster.change-bus.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cluster.change-bus.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cluster.change-bus.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    @Value("${cluster.change-bus.max-gaps:10000}")
+    private int maxGaps;
+
+    @Value("${cluster.change-bus.retention-seconds:3600}")
+    private long retentionSeconds;
+
+    private long highWater = -1;
+    /** Skipped change ids -> when they were first noticed (nanoTime). */
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled && !event.remote()) {
+            append(PRODUCT, event.productId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (enabled && !event.remote()) {
+            append(ORDER, event.orderId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.change-bus.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (highWater < 0) {
+                // Everything committed before startup is already in the database that the indexes load from
+                Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM change_log", Long.class);
+                highWater = max == null ? 0 : max;
+                return;
+            }
+            List<Change> changes = new ArrayList<>(recheckGaps());
+            List<Change> fresh = jdbcTemplate.query(
+                    "SELECT id, entity_type, entity_id, origin FROM change_log WHERE id > ? ORDER BY id LIMIT ?",
+                    (rs, i) -> new Change(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4)),
+                    highWater, batchSize);
+            changes.addAll(fresh);
+            apply(changes);
+            for (Change change : changes) {
+                gaps.remove(change.id());
+            }
+            // Advance only after the changes were applied, so a failed poll is retried
+            long now = System.nanoTime();
+            for (Change change : fresh) {
+                for (long missing = highWater + 1; missing < change.id() && gaps.size() < maxGaps; missing++) {
+                    gaps.put(missing, now);
+                }
+                highWater = change.id();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("变更日志拉取失败: " + e.getMessage());
+        }
+    }
+
+    /** Old change-log rows are deleted by whichever node holds the purge lease. */
+    @Scheduled(fixedRate = 60000)
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        leaseService.tryAcquire("change-log-purge").ifPresent(lease ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    leaseService.fence(lease);
+                    jdbcTemplate.update("DELETE FROM change_log WHERE created_at < NOW(3) - INTERVAL ? SECOND LIMIT 100000",
+                            retentionSeconds);
+                }));
+    }
+
+    private void append(String type, Long id) {
+        jdbcTemplate.update("INSERT INTO change_log (entity_type, entity_id, origin) VALUES (?, ?, ?)",
+                type, id, node.getId());
+    }
+
+    private List<Change> recheckGaps() {
+        if (gaps.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long expiredBefore = System.nanoTime() - gapTimeoutMs * 1_000_000;
+        gaps.values().removeIf(firstSeen -> firstSeen < expiredBefore);
+        if (gaps.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = new ArrayList<>(gaps.keySet());
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        List<Change> found = jdbcTemplate.query(
+                "SELECT id, entity_type, entity_id, origin FROM change_log WHERE id IN (" + placeholders + ") ORDER BY id",
+                (rs, i) -> new Change(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4)),
+                ids.toArray());
+        return found;
+    }
+
+    private void apply(List<Change> changes) {
+        List<Change> remote = new ArrayList<>();
+        for (Change change : changes) {
+            if (!node.getId().equals(change.origin())) {
+                remote.add(change);
+            }
+        }
+        if (remote.isEmpty()) {
+            return;
+        }
+        // Published inside a transaction so the usual after-commit listeners receive them
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            for (Change change : remote) {
+                if (PRODUCT.equals(change.type())) {
+                    eventPublisher.publishEvent(productRepository.findById(change.entityId())
+                            .map(ProductChangedEvent::saved)
+                            .orElseGet(() -> ProductChangedEvent.deleted(change.entityId()))
+                            .asRemote());
+                } else if (ORDER.equals(change.type())) {
+                    orderRepository.findWithItemsById(change.entityId())
+                            .ifPresent(order -> eventPublisher.publishEvent(OrderPlacedEvent.of(order).asRemote()));
+                }
+            }
+        });
+    }
+
+    private record Change(long id, String type, long entityId, String origin) {
+    }
+}
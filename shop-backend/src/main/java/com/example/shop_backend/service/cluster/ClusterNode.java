@@ -0,0 +1,41 @@
+package com.example.shop_backend.service.cluster;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Identity of this backend instance within the cluster, used as lease owner and change-log origin.
+ * Configured with {@code cluster.node-id}; defaults to the host name plus a random suffix, so
+ * two instances started on one machine never share an id.
+ */
+@Component
+public class ClusterNode {
+
+    @Value("${cluster.node-id:}")
+    private String configuredId;
+
+    private String id;
+
+    @PostConstruct
+    void init() {
+        id = configuredId.isBlank() ? hostName() + "-" + UUID.randomUUID().toString().substring(0, 8) : configuredId;
+        System.out.println("Cluster node id: " + id);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
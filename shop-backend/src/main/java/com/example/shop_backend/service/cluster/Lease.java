@@ -0,0 +1,9 @@
+package com.example.shop_backend.service.cluster;
+
+/**
+ * A held job lease. {@code token} grows by one every time the lease changes owner and is
+ * checked by {@link LeaseService#fence(Lease)} before the job writes anything.
+ * Sharded jobs get one lease per shard; unsharded jobs have {@code shard = 0, shards = 1}.
+ */
+public record Lease(String name, long token, int shard, int shards) {
+}
@@ -0,0 +1,199 @@
+package com.example.shop_backend.service.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leader election for scheduled jobs over the {@code job_leases} table.
+ * <p>
+ * A lease is a row with an owner, an expiry and a fencing token. It is taken over only once
+ * expired, which bumps the token, and is kept alive by {@link #heartbeat()}. All expiry
+ * arithmetic uses the database clock, so nodes with skewed clocks still agree.
+ * A job calls {@link #fence(Lease)} inside its own transaction before writing: the row is read
+ * {@code FOR SHARE}, so a takeover cannot commit until the job's transaction has finished,
+ * and a job whose lease was taken over fails instead of writing alongside the new owner.
+ * <p>
+ * Sharded jobs hold one lease per shard. Every node running the job also keeps a
+ * {@code <job>@<node>} membership row alive and takes at most its fair share of the shards,
+ * releasing extras when nodes join.
+ */
+@Service
+public class LeaseService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterNode node;
+
+    @Value("${cluster.lease.ttl-ms:15000}")
+    private long ttlMs;
+
+    /** Lease name -> held lease. */
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    /** Sharded jobs this node takes part in. */
+    private final Set<String> shardedJobs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Takes or renews the single lease for {@code job}.
+     */
+    public Optional<Lease> tryAcquire(String job) {
+        return Optional.ofNullable(acquireOrRenew(job, 0, 1));
+    }
+
+    /**
+     * Takes or renews this node's share of the {@code shards} leases of {@code job}.
+     *
+     * @return the shards this node may process now, possibly none
+     */
+    public List<Lease> acquireShards(String job, int shards) {
+        if (shards <= 1) {
+            return tryAcquire(job).map(List::of).orElse(List.of());
+        }
+        shardedJobs.add(job);
+        registerMember(job);
+        Integer live = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM job_leases WHERE name LIKE ? AND expires_at > NOW(3)",
+                Integer.class, job + "@%");
+        int members = Math.max(1, live == null ? 1 : live);
+        int quota = (shards + members - 1) / members;
+
+        List<Lease> mine = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            String name = shardName(job, shard, shards);
+            if (held.containsKey(name)) {
+                Lease lease = renew(held.get(name));
+                if (lease != null) {
+                    if (mine.size() < quota) {
+                        mine.add(lease);
+                    } else {
+                        // Another node joined: hand this shard over
+                        release(lease);
+                    }
+                }
+            }
+        }
+        for (int shard = 0; shard < shards && mine.size() < quota; shard++) {
+            String name = shardName(job, shard, shards);
+            if (!held.containsKey(name)) {
+                Lease lease = acquire(name, shard, shards);
+                if (lease != null) {
+                    mine.add(lease);
+                }
+            }
+        }
+        return mine;
+    }
+
+    /**
+     * Verifies, inside the caller's transaction, that the lease has not been taken over.
+     * Holds a shared row lock on the lease until that transaction ends.
+     *
+     * @throws IllegalStateException if another node now owns the lease
+     */
+    public void fence(Lease lease) {
+        List<Long> tokens = jdbcTemplate.queryForList(
+                "SELECT token FROM job_leases WHERE name = ? AND owner = ? FOR SHARE",
+                Long.class, lease.name(), node.getId());
+        if (tokens.isEmpty() || tokens.get(0) != lease.token()) {
+            held.remove(lease.name());
+            throw new IllegalStateException("租约已被其他节点接管: " + lease.name());
+        }
+    }
+
+    public void release(Lease lease) {
+        held.remove(lease.name());
+        jdbcTemplate.update("UPDATE job_leases SET owner = NULL, expires_at = '1970-01-01 00:00:01'"
+                + " WHERE name = ? AND owner = ? AND token = ?", lease.name(), node.getId(), lease.token());
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.lease.heartbeat-ms:5000}")
+    public void heartbeat() {
+        try {
+            for (String job : shardedJobs) {
+                registerMember(job);
+            }
+            for (Lease lease : List.copyOf(held.values())) {
+                renew(lease);
+            }
+        } catch (DataAccessException e) {
+            System.out.println("租约续期失败: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        try {
+            for (Lease lease : List.copyOf(held.values())) {
+                release(lease);
+            }
+            for (String job : shardedJobs) {
+                jdbcTemplate.update("DELETE FROM job_leases WHERE name = ?", memberName(job));
+            }
+        } catch (DataAccessException e) {
+            // The leases expire on their own
+        }
+    }
+
+    private Lease acquireOrRenew(String name, int shard, int shards) {
+        Lease current = held.get(name);
+        return current != null ? renew(current) : acquire(name, shard, shards);
+    }
+
+    private Lease acquire(String name, int shard, int shards) {
+        jdbcTemplate.update("INSERT IGNORE INTO job_leases (name, owner, token, expires_at)"
+                + " VALUES (?, NULL, 0, '1970-01-01 00:00:01')", name);
+        int updated = jdbcTemplate.update("UPDATE job_leases SET owner = ?, token = token + 1,"
+                        + " expires_at = DATE_ADD(NOW(3), INTERVAL ? MICROSECOND)"
+                        + " WHERE name = ? AND (owner IS NULL OR expires_at <= NOW(3))",
+                node.getId(), ttlMs * 1000, name);
+        if (updated == 0) {
+            return null;
+        }
+        List<Long> tokens = jdbcTemplate.queryForList(
+                "SELECT token FROM job_leases WHERE name = ? AND owner = ?", Long.class, name, node.getId());
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        Lease lease = new Lease(name, tokens.get(0), shard, shards);
+        held.put(name, lease);
+        return lease;
+    }
+
+    private Lease renew(Lease lease) {
+        int updated = jdbcTemplate.update("UPDATE job_leases SET expires_at = DATE_ADD(NOW(3), INTERVAL ? MICROSECOND)"
+                + " WHERE name = ? AND owner = ? AND token = ?", ttlMs * 1000, lease.name(), node.getId(), lease.token());
+        if (updated == 0) {
+            held.remove(lease.name());
+            return null;
+        }
+        return lease;
+    }
+
+    private void registerMember(String job) {
+        jdbcTemplate.update("INSERT INTO job_leases (name, owner, token, expires_at)"
+                        + " VALUES (?, ?, 0, DATE_ADD(NOW(3), INTERVAL ? MICROSECOND))"
+                        + " ON DUPLICATE KEY UPDATE owner = VALUES(owner), expires_at = VALUES(expires_at)",
+                memberName(job), node.getId(), ttlMs * 1000);
+    }
+
+    private String memberName(String job) {
+        return job + "@" + node.getId();
+    }
+
+    private static String shardName(String job, int shard, int shards) {
+        return shards <= 1 ? job : job + "#" + shard + "/" + shards;
+    }
+}
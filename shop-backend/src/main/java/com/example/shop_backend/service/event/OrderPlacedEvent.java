@@ -0,0 +1,45 @@
+package com.example.shop_backend.service.event;
+
+import com.example.shop_backend.model.Order;
+import com.example.shop_backend.model.OrderItem;
+import com.example.shop_backend.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by {@code OrderService} when an order is created. Carries plain values only,
+ * so listeners running after commit never touch detached entities.
+ * <p>
+ * {@code remote} marks an order placed on another node and replayed here by the change bus.
+ */
+public record OrderPlacedEvent(
+        Long orderId,
+        Long userId,
+        String buyerName,
+        OrderStatus status,
+        LocalDateTime createdAt,
+        List<Line> lines,
+        boolean remote) {
+
+    public record Line(Long productId, String productName, Long sellerId, int quantity, BigDecimal price) {
+    }
+
+    public static OrderPlacedEvent of(Order order) {
+        List<Line> lines = order.getItems().stream()
+                .map(OrderPlacedEvent::line)
+                .toList();
+        return new OrderPlacedEvent(order.getId(), order.getUser().getId(), order.getUser().getUsername(),
+                order.getStatus(), order.getCreatedAt(), lines, false);
+    }
+
+    public OrderPlacedEvent asRemote() {
+        return new OrderPlacedEvent(orderId, userId, buyerName, status, createdAt, lines, true);
+    }
+
+    private static Line line(OrderItem item) {
+        return new Line(item.getProduct().getId(), item.getProduct().getName(), item.getSeller().getId(),
+                item.getQuantity(), item.getPrice());
+    }
+}
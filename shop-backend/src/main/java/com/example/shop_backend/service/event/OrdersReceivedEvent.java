@@ -0,0 +1,10 @@
+package com.example.shop_backend.service.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by the auto-receive sweep for the orders it marked as received in one transaction.
+ */
+public record OrdersReceivedEvent(List<Long> orderIds, LocalDateTime receivedAt) {
+}
@@ -0,0 +1,29 @@
+package com.example.shop_backend.service.event;
+
+import com.example.shop_backend.model.Product;
+
+/**
+ * Published whenever a product is created, edited, deleted or its stock changes.
+ * Carries the full product state after the change, or {@code null} when it was deleted,
+ * so applying the same event twice is harmless.
+ * <p>
+ * {@code remote} marks a change made on another node and replayed here by the change bus.
+ */
+public record ProductChangedEvent(Long productId, Product product, boolean remote) {
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product, false);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null, false);
+    }
+
+    public ProductChangedEvent asRemote() {
+        return new ProductChangedEvent(productId, product, true);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.shop_backend.service.event;
+
+import java.util.List;
+
+/**
+ * Published by {@code OrderService} once an order's stock decrements are written, for products with
+ * tracked stock. {@code remaining} is the stock left after the order.
+ */
+public record StockReservedEvent(Long orderId, List<Line> lines) {
+
+    public record Line(Long productId, int quantity, int remaining) {
+    }
+}
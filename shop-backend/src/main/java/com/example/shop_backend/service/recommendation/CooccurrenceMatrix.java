@@ -0,0 +1,54 @@
+package com.example.shop_backend.service.recommendation;
+
+import com.example.shop_backend.util.LongIntHashMap;
+import com.example.shop_backend.util.LongObjectHashMap;
+
+/**
+ * Sparse symmetric product x product matrix counting how many orders contained both
+ * products. Rows and cells are primitive-keyed hash maps. Not thread-safe.
+ */
+public class CooccurrenceMatrix {
+
+    private final LongObjectHashMap<LongIntHashMap> rows;
+
+    public CooccurrenceMatrix(int expectedProducts) {
+        rows = new LongObjectHashMap<>(expectedProducts);
+    }
+
+    /**
+     * @param products distinct product ids of one order
+     */
+    public void addOrder(long[] products, int count) {
+        for (int i = 0; i < count; i++) {
+            LongIntHashMap row = rows.computeIfAbsent(products[i], id -> new LongIntHashMap());
+            for (int j = 0; j < count; j++) {
+                if (i != j) {
+                    row.addTo(products[j], 1);
+                }
+            }
+        }
+    }
+
+    public LongIntHashMap row(long product) {
+        return rows.get(product);
+    }
+
+    public int productCount() {
+        return rows.size();
+    }
+
+    public void forEachRow(LongObjectHashMap.Consumer<LongIntHashMap> consumer) {
+        rows.forEach(consumer);
+    }
+
+    public void mergeFrom(CooccurrenceMatrix other) {
+        other.rows.forEach((product, otherRow) -> {
+            LongIntHashMap row = rows.get(product);
+            if (row == null) {
+                rows.put(product, otherRow);
+            } else {
+                otherRow.forEach(row::addTo);
+            }
+        });
+    }
+}
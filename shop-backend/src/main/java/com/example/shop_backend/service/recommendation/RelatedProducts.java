@@ -0,0 +1,80 @@
+package com.example.shop_backend.service.recommendation;
+
+import com.example.shop_backend.util.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Immutable top-K list of related products, best first (higher score, then lower id).
+ * Updates return a new instance so readers can use a list without locking.
+ */
+public final class RelatedProducts {
+
+    static final RelatedProducts EMPTY = new RelatedProducts(new long[0], new int[0]);
+
+    private final long[] ids;
+    private final int[] scores;
+
+    private RelatedProducts(long[] ids, int[] scores) {
+        this.ids = ids;
+        this.scores = scores;
+    }
+
+    public long[] ids(int limit) {
+        return Arrays.copyOf(ids, Math.min(limit, ids.length));
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public static RelatedProducts fromRow(LongIntHashMap row, int k) {
+        RelatedProducts[] top = {EMPTY};
+        row.forEach((id, score) -> top[0] = top[0].withScore(id, score, k));
+        return top[0];
+    }
+
+    /**
+     * Applies a new, never smaller, score for {@code id}. Because co-occurrence counts only
+     * grow, checking the changed entry against the current list keeps the top K exact.
+     */
+    public RelatedProducts withScore(long id, int score, int k) {
+        int n = ids.length;
+        int existing = -1;
+        for (int i = 0; i < n; i++) {
+            if (ids[i] == id) {
+                existing = i;
+                break;
+            }
+        }
+        if (existing < 0 && n == k && !ranksBefore(id, score, ids[n - 1], scores[n - 1])) {
+            return this;
+        }
+
+        long[] newIds;
+        int[] newScores;
+        int pos;
+        if (existing >= 0) {
+            newIds = ids.clone();
+            newScores = scores.clone();
+            pos = existing;
+        } else {
+            int size = Math.min(n + 1, k);
+            newIds = Arrays.copyOf(ids, size);
+            newScores = Arrays.copyOf(scores, size);
+            pos = size - 1;
+        }
+        while (pos > 0 && ranksBefore(id, score, newIds[pos - 1], newScores[pos - 1])) {
+            newIds[pos] = newIds[pos - 1];
+            newScores[pos] = newScores[pos - 1];
+            pos--;
+        }
+        newIds[pos] = id;
+        newScores[pos] = score;
+        return new RelatedProducts(newIds, newScores);
+    }
+
+    private static boolean ranksBefore(long id, int score, long otherId, int otherScore) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.shop_backend.util;
+
+/**
+ * Spreads sequential ids over the table so linear probing does not cluster.
+ */
+final class HashMix {
+
+    private HashMix() {
+    }
+
+    static int mix(long key) {
+        // Finalizer of MurmurHash3 (fmix64)
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb93fe53a87e3L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.shop_backend.util;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code int} without boxing.
+ * Key {@code 0} is reserved as the empty marker, which is fine for database ids.
+ * Not thread-safe.
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap() {
+        this(8);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the value for {@code key}, or {@code 0} if absent
+     */
+    public int get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, int value) {
+        checkKey(key);
+        int slot = insertionSlot(key);
+        values[slot] = value;
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            if (++size >= resizeAt) {
+                rehash(keys.length << 1);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value for {@code key} (absent counts as 0).
+     *
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        checkKey(key);
+        int slot = insertionSlot(key);
+        int value = values[slot] += delta;
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            if (++size >= resizeAt) {
+                rehash(keys.length << 1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes {@code key}, shifting later entries of the probe chain back so lookups
+     * keep working without tombstones.
+     */
+    public void remove(long key) {
+        int gap = find(key);
+        if (gap < 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int ideal = HashMix.mix(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+    }
+
+    public void forEach(Consumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(long key, int value);
+    }
+
+    private int find(long key) {
+        if (key == 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int slot = HashMix.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = HashMix.mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = insertionSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongIntHashMap{size=" + size + ", capacity=" + keys.length + "}";
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.shop_backend.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Request path as Spring MVC routes it, for servlet filters that guard particular endpoints.
+ * {@code getRequestURI()} is the raw path, so {@code /actuator/jfr;x} or {@code /actuator/%6Afr}
+ * would slip past a filter comparing against it while still reaching the endpoint.
+ */
+public final class RequestPaths {
+
+    private RequestPaths() {
+    }
+
+    /**
+     * @return the path within the application, percent-decoded, without {@code ;} parameters,
+     * with {@code //}, {@code .} and {@code ..} segments resolved and no trailing slash
+     */
+    public static String normalized(HttpServletRequest request) {
+        String path = StringUtils.cleanPath(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        if (!path.startsWith("/")) {
+            path = "/" + path;
+        }
+        while (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    /**
+     * @return whether the normalized path is {@code prefix} or below it
+     */
+    public static boolean isUnder(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+}
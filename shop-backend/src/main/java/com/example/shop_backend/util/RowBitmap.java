@@ -0,0 +1,167 @@
+package com.example.shop_backend.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative row numbers, organised like a roaring bitmap: rows are
+ * grouped by their high 16 bits, and each group is stored as a sorted {@code char[]} while
+ * sparse or as a 65536-bit {@code long[]} once it holds more than 4096 rows.
+ * Not thread-safe.
+ */
+public class RowBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    /** Indexed by high 16 bits; each entry is a {@code char[]} (array) or {@code long[]} (bitmap) container. */
+    private Object[] containers = new Object[4];
+    /** Rows held by each container; for array containers also the used length of the array. */
+    private int[] counts = new int[4];
+    private int cardinality;
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean contains(int row) {
+        int high = row >>> 16;
+        if (high >= containers.length || containers[high] == null) {
+            return false;
+        }
+        char low = (char) row;
+        Object c = containers[high];
+        if (c instanceof long[] bits) {
+            return (bits[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) c, 0, counts[high], low) >= 0;
+    }
+
+    public void add(int row) {
+        int high = row >>> 16;
+        if (high >= containers.length) {
+            int size = Math.max(high + 1, containers.length * 2);
+            containers = Arrays.copyOf(containers, size);
+            counts = Arrays.copyOf(counts, size);
+        }
+        char low = (char) row;
+        Object c = containers[high];
+        if (c == null) {
+            containers[high] = new char[]{low, 0, 0, 0};
+            counts[high] = 1;
+            cardinality++;
+        } else if (c instanceof long[] bits) {
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                bits[low >>> 6] |= mask;
+                counts[high]++;
+                cardinality++;
+            }
+        } else {
+            char[] array = (char[]) c;
+            int n = counts[high];
+            int pos = Arrays.binarySearch(array, 0, n, low);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (n == ARRAY_MAX) {
+                long[] bits = toBitmap(array, n);
+                bits[low >>> 6] |= 1L << low;
+                containers[high] = bits;
+            } else {
+                if (n == array.length) {
+                    array = Arrays.copyOf(array, Math.min(ARRAY_MAX, n * 2));
+                    containers[high] = array;
+                }
+                System.arraycopy(array, pos, array, pos + 1, n - pos);
+                array[pos] = low;
+            }
+            counts[high]++;
+            cardinality++;
+        }
+    }
+
+    public void remove(int row) {
+        int high = row >>> 16;
+        if (high >= containers.length || containers[high] == null) {
+            return;
+        }
+        char low = (char) row;
+        Object c = containers[high];
+        if (c instanceof long[] bits) {
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                return;
+            }
+            bits[low >>> 6] &= ~mask;
+            counts[high]--;
+            cardinality--;
+            // Convert back only well below the threshold, so add/remove at the boundary does not thrash
+            if (counts[high] < ARRAY_MAX / 2) {
+                containers[high] = toArray(bits, counts[high]);
+            }
+        } else {
+            char[] array = (char[]) c;
+            int n = counts[high];
+            int pos = Arrays.binarySearch(array, 0, n, low);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(array, pos + 1, array, pos, n - pos - 1);
+            counts[high]--;
+            cardinality--;
+            if (counts[high] == 0) {
+                containers[high] = null;
+            }
+        }
+    }
+
+    /**
+     * Visits all rows in ascending order.
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int high = 0; high < containers.length; high++) {
+            Object c = containers[high];
+            if (c == null) {
+                continue;
+            }
+            int base = high << 16;
+            if (c instanceof long[] bits) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        consumer.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] array = (char[]) c;
+                for (int i = 0; i < counts[high]; i++) {
+                    consumer.accept(base | array[i]);
+                }
+            }
+        }
+    }
+
+    private static long[] toBitmap(char[] array, int n) {
+        long[] bits = new long[BITMAP_WORDS];
+        for (int i = 0; i < n; i++) {
+            bits[array[i] >>> 6] |= 1L << array[i];
+        }
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int n) {
+        char[] array = new char[Math.max(n, 4)];
+        int i = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                array[i++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+}
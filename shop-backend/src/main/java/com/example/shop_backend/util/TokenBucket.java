@@ -0,0 +1,51 @@
+package com.example.shop_backend.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in the GCRA form: the whole state is one "theoretical arrival time"
+ * updated with CAS, so a check is a read, some arithmetic and usually a single CAS.
+ * <p>
+ * {@code ratePerSecond} requests per second are allowed on average, with up to {@code burst}
+ * back to back. A bucket whose arrival time is in the past is full, so it can be discarded and
+ * recreated later without changing any decision.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong arrival;
+
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.arrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 if allowed, otherwise how many nanoseconds until a token is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** True once every token has been refilled, i.e. the bucket is indistinguishable from a new one. */
+    public boolean isIdle(long nowNanos) {
+        return arrival.get() <= nowNanos;
+    }
+}
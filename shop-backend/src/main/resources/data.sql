@@ -1,8 +1,13 @@
+-- order_summaries 外键引用 orders，需先删除
+DELETE FROM order_summaries;
 DELETE FROM order_items;
 DELETE FROM orders;
 DELETE FROM cart_items;
 DELETE FROM products;
 DELETE FROM users;
+-- 变更通知指向已删除的数据，一并清空（自增 id 不回退，各节点的高水位仍然有效）；
+-- job_leases 只记录任务归属，不随示例数据重置
+DELETE FROM change_log;
 
 INSERT INTO users (id, username, password, email, role) VALUES
 (1, 'admin', '123456', '524307197@qq.com', 'SELLER'),
@@ -0,0 +1,59 @@
+-- 与此前 ddl-auto=update 生成的表结构一致。
+-- 已有数据库通过 spring.flyway.baseline-on-migrate 直接标记为版本 1，不会执行本脚本。
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    email    VARCHAR(255) NOT NULL,
+    role     ENUM ('CUSTOMER', 'SELLER') NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS products (
+    id             BIGINT        NOT NULL AUTO_INCREMENT,
+    name           VARCHAR(255)  NOT NULL,
+    description    VARCHAR(1000),
+    price          DOUBLE        NOT NULL,
+    image_url      VARCHAR(255),
+    stock_quantity INT,
+    seller_id      BIGINT        NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_products_seller FOREIGN KEY (seller_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS cart_items (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity   INT    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_cart_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS orders (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT      NOT NULL,
+    status      ENUM ('SHIPPED', 'RECEIVED') NOT NULL,
+    created_at  DATETIME(6) NOT NULL,
+    shipped_at  DATETIME(6),
+    received_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    order_id   BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    seller_id  BIGINT NOT NULL,
+    quantity   INT    NOT NULL,
+    price      DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_order_items_seller FOREIGN KEY (seller_id) REFERENCES users (id)
+) ENGINE = InnoDB;
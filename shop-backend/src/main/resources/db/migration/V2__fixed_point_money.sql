@@ -0,0 +1,3 @@
+-- 金额改为定点数，避免 DOUBLE 累加产生的误差（如 0.1 + 0.2）
+ALTER TABLE products MODIFY price DECIMAL(12, 2) NOT NULL;
+ALTER TABLE order_items MODIFY price DECIMAL(12, 2) NOT NULL;
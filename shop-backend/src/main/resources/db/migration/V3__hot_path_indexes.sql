@@ -0,0 +1,25 @@
+-- 购物车：findByUserAndProductId 的唯一约束。先合并历史上重复的 (user_id, product_id) 行
+UPDATE cart_items c
+    JOIN (SELECT MIN(id) AS keep_id, SUM(quantity) AS total
+          FROM cart_items
+          GROUP BY user_id, product_id
+          HAVING COUNT(*) > 1) d ON c.id = d.keep_id
+SET c.quantity = d.total;
+
+DELETE c
+FROM cart_items c
+    JOIN cart_items k ON k.user_id = c.user_id AND k.product_id = c.product_id AND k.id < c.id;
+
+ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_user_product UNIQUE (user_id, product_id);
+
+-- 卖家订单 / 统计：包含 order_items 的全部列，findBySeller 只需扫描这一段索引，无需回表
+CREATE INDEX ix_order_items_seller_order ON order_items (seller_id, order_id, product_id, quantity, price);
+
+-- 用户订单历史，按时间倒序
+CREATE INDEX ix_orders_user_created ON orders (user_id, created_at);
+
+-- autoReceiveOrders：status = 'SHIPPED' AND shipped_at < ?
+CREATE INDEX ix_orders_status_shipped ON orders (status, shipped_at);
+
+-- 卖家商品列表
+CREATE INDEX ix_products_seller ON products (seller_id);
@@ -0,0 +1,35 @@
+-- 买家订单历史的读模型：每个订单一行，下单与签收时随订单在同一事务中写入
+CREATE TABLE order_summaries (
+    order_id             BIGINT        NOT NULL,
+    user_id              BIGINT        NOT NULL,
+    status               ENUM ('SHIPPED', 'RECEIVED') NOT NULL,
+    created_at           DATETIME(6)   NOT NULL,
+    shipped_at           DATETIME(6),
+    received_at          DATETIME(6),
+    item_count           INT           NOT NULL,
+    total_amount         DECIMAL(12, 2) NOT NULL,
+    preview_product_name VARCHAR(255),
+    preview_image_url    VARCHAR(255),
+    PRIMARY KEY (order_id),
+    CONSTRAINT fk_order_summaries_order FOREIGN KEY (order_id) REFERENCES orders (id)
+) ENGINE = InnoDB;
+
+-- 翻页条件 (created_at, order_id) < (?, ?) 按这一索引倒序做一次范围扫描
+CREATE INDEX ix_order_summaries_user_created ON order_summaries (user_id, created_at, order_id);
+
+-- 回填已有订单；预览取每个订单的第一行明细
+INSERT INTO order_summaries (order_id, user_id, status, created_at, shipped_at, received_at,
+                             item_count, total_amount, preview_product_name, preview_image_url)
+SELECT o.id,
+       o.user_id,
+       o.status,
+       o.created_at,
+       o.shipped_at,
+       o.received_at,
+       COALESCE((SELECT SUM(i.quantity) FROM order_items i WHERE i.order_id = o.id), 0),
+       COALESCE((SELECT SUM(i.price * i.quantity) FROM order_items i WHERE i.order_id = o.id), 0),
+       p.name,
+       p.image_url
+FROM orders o
+         LEFT JOIN order_items f ON f.id = (SELECT MIN(i.id) FROM order_items i WHERE i.order_id = o.id)
+         LEFT JOIN products p ON p.id = f.product_id;
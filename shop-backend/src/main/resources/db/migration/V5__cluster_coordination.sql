@@ -0,0 +1,20 @@
+-- 定时任务租约：owner 持有到 expires_at（数据库时间），每次易主 token 加一，用作防护令牌
+-- 分片任务的每个参与节点另外维护一行 <任务>@<节点>，用于按节点数均分分片
+CREATE TABLE job_leases (
+    name       VARCHAR(128) NOT NULL,
+    owner      VARCHAR(128),
+    token      BIGINT       NOT NULL,
+    expires_at DATETIME(3)  NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+-- 跨节点变更通知：只追加，各节点按 id 高水位轮询
+CREATE TABLE change_log (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    origin      VARCHAR(128) NOT NULL,
+    created_at  DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (id),
+    INDEX ix_change_log_created (created_at)
+) ENGINE = InnoDB;
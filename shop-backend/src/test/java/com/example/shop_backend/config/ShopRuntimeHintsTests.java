@@ -0,0 +1,34 @@
+package com.example.shop_backend.config;
+
+import com.example.shop_backend.controller.dto.OrderHistoryPage;
+import com.example.shop_backend.controller.dto.ProductPage;
+import com.example.shop_backend.model.OrderSummary;
+import com.example.shop_backend.model.Product;
+import com.example.shop_backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShopRuntimeHintsTests {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    ShopRuntimeHintsTests() {
+        new ShopRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersLombokAccessorsForJackson() {
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(Product.class, "getPrice")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(User.class, "setUsername")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(ProductPage.class, "getItems")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(OrderHistoryPage.class, "getNextBeforeId")).accepts(hints);
+    }
+
+    @Test
+    void registersReadModelEntity() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(OrderSummary.class)).accepts(hints);
+    }
+}
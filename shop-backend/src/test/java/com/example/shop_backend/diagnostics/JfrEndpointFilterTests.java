@@ -0,0 +1,66 @@
+package com.example.shop_backend.diagnostics;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JfrEndpointFilterTests {
+
+    private final JfrEndpointFilter filter = new JfrEndpointFilter();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/actuator/jfr",
+            "/actuator/jfr/dump",
+            "/actuator/jfr;x/dump",
+            "/actuator/jfr/dump;jsessionid=1",
+            "/actuator/%6Afr",
+            "/actuator/%6a%66%72/dump",
+            "/actuator//jfr",
+            "/actuator/./jfr/",
+            "/api/../actuator/jfr",
+            "/actuator/journal",
+            "/actuator/journal;x/seller-stats/1",
+            "/actuator/%6Aournal/seller-stats/1"
+    })
+    void guardsEncodedAndParameterizedPaths(String uri) throws Exception {
+        ReflectionTestUtils.setField(filter, "token", "secret");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/actuator/jfr;x/dump", "/actuator/%6Aournal"})
+    void acceptsTokenOnNormalizedPath(String uri) throws Exception {
+        ReflectionTestUtils.setField(filter, "token", "secret");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Authorization", "Bearer secret");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/actuator/health", "/api/products", "/actuator/jfrx"})
+    void ignoresOtherPaths(String uri) throws Exception {
+        ReflectionTestUtils.setField(filter, "token", "");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", uri), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.shop_backend.journal;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Opens an {@link OrderJournal} over a test directory without a Spring context.
+ */
+final class OrderJournalFixtures {
+
+    private OrderJournalFixtures() {
+    }
+
+    static OrderJournal open(Path dir, int segmentMb) throws IOException {
+        OrderJournal journal = new OrderJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentMb", segmentMb);
+        ReflectionTestUtils.setField(journal, "awaitFlush", true);
+        ReflectionTestUtils.setField(journal, "maxFlushWaitMs", 1000L);
+        journal.open();
+        return journal;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.shop_backend.journal;
+
+import com.example.shop_backend.model.OrderStatus;
+import com.example.shop_backend.service.event.OrderPlacedEvent;
+import com.example.shop_backend.service.event.OrdersReceivedEvent;
+import com.example.shop_backend.service.event.StockReservedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderJournalTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private OrderJournal journal;
+
+    @AfterEach
+    void close() throws InterruptedException {
+        journal.close();
+    }
+
+    @Test
+    void replaysRecordsAfterReopen() throws Exception {
+        journal = OrderJournalFixtures.open(dir, 1);
+        journal.appendOrderPlaced(placed(7));
+        journal.appendStockReserved(new StockReservedEvent(7L, List.of(new StockReservedEvent.Line(100L, 2, 8))));
+        journal.appendOrdersReceived(new OrdersReceivedEvent(List.of(7L), NOW.plusMinutes(10)));
+        journal.close();
+
+        journal = OrderJournalFixtures.open(dir, 1);
+        List<String> seen = new ArrayList<>();
+        long count = journal.replay(r -> seen.add(r.seq() + ":" + r.type() + ":" + r.orderId()));
+        assertThat(count).isEqualTo(4);
+        assertThat(seen).containsExactly("1:1:7", "2:3:7", "3:2:7", "4:4:7");
+        assertThat(journal.lastPlacedOrderId()).isEqualTo(7);
+
+        journal.replay(r -> {
+            if (r.type() == JournalRecord.ORDER_PLACED) {
+                assertThat(r.lineCount()).isEqualTo(2);
+                assertThat(r.sellerId(1)).isEqualTo(3);
+                assertThat(r.priceCents(0)).isEqualTo(1999);
+                assertThat(r.productName(1)).isEqualTo("保温杯");
+            } else if (r.type() == JournalRecord.STOCK_RESERVED) {
+                assertThat(r.remaining(0)).isEqualTo(8);
+            }
+        });
+        // Placed and shipped
+        assertThat(journal.appendOrderPlaced(placed(8))).isEqualTo(6);
+    }
+
+    @Test
+    void rollsSegmentsAndReplaysThemInParallel() throws Exception {
+        journal = OrderJournalFixtures.open(dir, 1);
+        // Not waiting for each flush keeps the test fast
+        ReflectionTestUtils.setField(journal, "awaitFlush", false);
+        for (int i = 1; i <= 20_000; i++) {
+            journal.appendOrderPlaced(placed(i));
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+        long units = journal.replayParallel(4, () -> new long[1],
+                (acc, r) -> {
+                    if (r.type() == JournalRecord.ORDER_PLACED) {
+                        acc[0] += r.quantity(0) + r.quantity(1);
+                    }
+                },
+                (a, b) -> new long[]{a[0] + b[0]})[0];
+        assertThat(units).isEqualTo(20_000 * 3);
+    }
+
+    @Test
+    void cutsOffTornTail() throws Exception {
+        journal = OrderJournalFixtures.open(dir, 1);
+        journal.appendOrderPlaced(placed(1));
+        int end = (int) journal.status().get("currentSegmentUsed");
+        journal.appendOrderPlaced(placed(2));
+        journal.close();
+
+        // Damage the second record as if the process died while writing it
+        Path segment = dir.resolve(String.format("%020d.journal", 1));
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(end + 30);
+            file.write(0x5A);
+        }
+
+        journal = OrderJournalFixtures.open(dir, 1);
+        assertThat(journal.replay(r -> { })).isEqualTo(2);
+        assertThat(journal.lastPlacedOrderId()).isEqualTo(1);
+        assertThat(journal.appendOrderPlaced(placed(3))).isEqualTo(4);
+    }
+
+    private static OrderPlacedEvent placed(long orderId) {
+        return new OrderPlacedEvent(orderId, 2L, "buyer", OrderStatus.SHIPPED, NOW, List.of(
+                new OrderPlacedEvent.Line(100L, "笔记本", 1L, 2, new BigDecimal("19.99")),
+                new OrderPlacedEvent.Line(101L, "保温杯", 3L, 1, new BigDecimal("59.00"))), false);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.shop_backend.journal;
+
+import com.example.shop_backend.model.OrderStatus;
+import com.example.shop_backend.service.event.OrderPlacedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SellerStatsProjectionTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private OrderJournal journal;
+
+    @AfterEach
+    void close() throws InterruptedException {
+        journal.close();
+    }
+
+    @Test
+    void countsAnOrderOncePerSeller() throws Exception {
+        journal = OrderJournalFixtures.open(dir, 1);
+        // Seller 3 has two lines of order 1, seller 4 one
+        journal.appendOrderPlaced(order(1, line(100L, "笔记本", 3L, 2, "19.99"), line(101L, "保温杯", 4L, 1, "59.00"),
+                line(102L, "笔记本", 3L, 1, "19.99")));
+        journal.appendOrderPlaced(order(2, line(103L, "台灯", 3L, 1, "80.00")));
+
+        SellerStatsProjection projection = projection(1, 2);
+        projection.rebuild();
+
+        Map<String, Object> seller3 = projection.statsFor(3);
+        assertThat(seller3.get("totalOrders")).isEqualTo(2);
+        assertThat(seller3.get("totalUnits")).isEqualTo(4);
+        assertThat(seller3.get("totalRevenue")).isEqualTo(new BigDecimal("139.97"));
+        assertThat(seller3.get("productSales")).isEqualTo(Map.of("笔记本", 3L, "台灯", 1L));
+        assertThat(seller3.get("complete")).isEqualTo(true);
+
+        Map<String, Object> seller4 = projection.statsFor(4);
+        assertThat(seller4.get("totalOrders")).isEqualTo(1);
+        assertThat(seller4.get("totalRevenue")).isEqualTo(new BigDecimal("59.00"));
+        assertThat(projection.statsFor(5).get("totalOrders")).isEqualTo(0);
+    }
+
+    @Test
+    void mergesTheTotalsOfEverySegment() throws Exception {
+        journal = OrderJournalFixtures.open(dir, 1);
+        ReflectionTestUtils.setField(journal, "awaitFlush", false);
+        int orders = 20_000;
+        for (int i = 1; i <= orders; i++) {
+            journal.appendOrderPlaced(order(i, line(100L, "笔记本", 3L, 2, "19.99"), line(101L, "保温杯", 4L, 1, "59.00")));
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+
+        SellerStatsProjection projection = projection(1, orders);
+        Map<String, Object> summary = projection.rebuild();
+        assertThat(summary.get("sellers")).isEqualTo(2);
+
+        Map<String, Object> seller3 = projection.statsFor(3);
+        assertThat(seller3.get("totalOrders")).isEqualTo(orders);
+        assertThat(seller3.get("totalUnits")).isEqualTo(2 * orders);
+        assertThat(seller3.get("totalRevenue")).isEqualTo(new BigDecimal("799600.00"));
+        assertThat(seller3.get("productSales")).isEqualTo(Map.of("笔记本", 2L * orders));
+        assertThat(projection.statsFor(4).get("totalOrders")).isEqualTo(orders);
+        assertThat(seller3.get("complete")).isEqualTo(true);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flagsOrdersMissingFromTheJournal() throws Exception {
+        journal = OrderJournalFixtures.open(dir, 1);
+        // Orders 1 and 2 were placed before the journal existed; 6 commits after the rebuild reads the database
+        for (long orderId = 3; orderId <= 6; orderId++) {
+            journal.appendOrderPlaced(order(orderId, line(100L, "笔记本", 3L, 1, "19.99")));
+        }
+
+        SellerStatsProjection projection = projection(1, 5);
+        Map<String, Object> summary = projection.rebuild();
+
+        Map<String, Object> coverage = (Map<String, Object>) summary.get("coverage");
+        assertThat(coverage.get("status")).isEqualTo("partial");
+        assertThat(coverage.get("complete")).isEqualTo(false);
+        assertThat(coverage.get("databaseOrders")).isEqualTo(5L);
+        assertThat(coverage.get("journaledOrders")).isEqualTo(3L);
+        assertThat(coverage.get("missingOrders")).isEqualTo(2L);
+        assertThat(coverage.get("firstJournaledOrderId")).isEqualTo(3L);
+        assertThat(projection.statsFor(3).get("complete")).isEqualTo(false);
+        assertThat(projection.statsFor(3).get("totalOrders")).isEqualTo(4);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flagsOrdersTheDatabaseNoLongerHas() throws Exception {
+        journal = OrderJournalFixtures.open(dir, 1);
+        // Orders 1-5 were deleted when data.sql reseeded the database; the journal kept them
+        for (long orderId = 1; orderId <= 6; orderId++) {
+            journal.appendOrderPlaced(order(orderId, line(100L, "笔记本", 3L, 1, "19.99")));
+        }
+
+        SellerStatsProjection projection = projection(6, 6);
+        Map<String, Object> coverage = (Map<String, Object>) projection.rebuild().get("coverage");
+
+        assertThat(coverage.get("status")).isEqualTo("inconsistent");
+        assertThat(coverage.get("complete")).isEqualTo(false);
+        assertThat(coverage.get("databaseOrders")).isEqualTo(1L);
+        assertThat(coverage.get("journaledOrders")).isEqualTo(6L);
+        assertThat(coverage.get("unknownOrders")).isEqualTo(5L);
+        assertThat(projection.statsFor(3).get("complete")).isEqualTo(false);
+    }
+
+    /** A projection over a database holding the orders {@code firstId..lastId}. */
+    private SellerStatsProjection projection(long firstId, long lastId) {
+        SellerStatsProjection projection = new SellerStatsProjection();
+        ReflectionTestUtils.setField(projection, "journal", journal);
+        ReflectionTestUtils.setField(projection, "parallelism", 4);
+        ReflectionTestUtils.setField(projection, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public Map<String, Object> queryForMap(String sql) {
+                return Map.of("orders", lastId - firstId + 1, "max_id", lastId);
+            }
+
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                long from = Math.max(firstId, (Long) args[0]);
+                long to = Math.min(lastId, (Long) args[1]);
+                return requiredType.cast(Math.max(0, to - from + 1));
+            }
+        });
+        return projection;
+    }
+
+    private static OrderPlacedEvent order(long orderId, OrderPlacedEvent.Line... lines) {
+        return new OrderPlacedEvent(orderId, 2L, "buyer", OrderStatus.SHIPPED, NOW, List.of(lines), false);
+    }
+
+    private static OrderPlacedEvent.Line line(long productId, String name, long sellerId, int quantity, String price) {
+        return new OrderPlacedEvent.Line(productId, name, sellerId, quantity, new BigDecimal(price));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.shop_backend.ratelimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTests {
+
+    @Test
+    void limitsParameterizedAndEncodedPaths() throws Exception {
+        RateLimitFilter filter = filter("1,1", "", "");
+        assertThat(send(filter, post("/api/cart/add", "{\"userId\":2}"))).isEqualTo(200);
+        assertThat(send(filter, post("/api/cart/add;x", "{\"userId\":2}"))).isEqualTo(429);
+        assertThat(send(filter, post("/api/cart/%61dd", "{\"userId\":2}"))).isEqualTo(429);
+        assertThat(send(filter, post("/api/cart/add/", "{\"userId\":2}"))).isEqualTo(429);
+        assertThat(send(filter, post("/api/cart/add", "{\"userId\":3}"))).isEqualTo(200);
+    }
+
+    @Test
+    void readsUserIdFromChunkedBody() throws Exception {
+        RateLimitFilter filter = filter("1,1", "", "");
+        assertThat(send(filter, chunked("/api/cart/add", "{\"userId\":2}"))).isEqualTo(200);
+        assertThat(send(filter, chunked("/api/cart/add", "{\"userId\":2}"))).isEqualTo(429);
+    }
+
+    @Test
+    void refusesBodiesTooLargeToInspect() throws Exception {
+        RateLimitFilter filter = filter("1,1", "", "");
+        String padded = "{\"pad\":\"" + "x".repeat(5000) + "\",\"userId\":2}";
+        assertThat(send(filter, chunked("/api/cart/add", padded))).isEqualTo(413);
+        assertThat(send(filter, post("/api/cart/add", padded))).isEqualTo(413);
+    }
+
+    @Test
+    void chargesTheUserIdTheControllerBinds() throws Exception {
+        RateLimitFilter filter = filter("1,1", "", "");
+        assertThat(send(filter, post("/api/cart/add", "{\"userId\":2,\"productId\":5}"))).isEqualTo(200);
+        assertThat(send(filter, post("/api/cart/add", "{\"\\u0075serId\":2}"))).isEqualTo(429);
+        // Jackson would bind the last of two userId fields; the request is refused instead
+        assertThat(send(filter, post("/api/cart/add", "{\"userId\":3,\"userId\":2}"))).isEqualTo(400);
+        assertThat(send(filter, post("/api/cart/add", "{\"userId\":2"))).isEqualTo(400);
+        assertThat(send(filter, post("/api/cart/add", "{\"userId\":3}"))).isEqualTo(200);
+    }
+
+    @Test
+    void replaysTheBodyToAsyncReaders() throws Exception {
+        RateLimitFilter filter = filter("5,5", "", "");
+        String body = "{\"userId\":2,\"productId\":5,\"quantity\":1}";
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        filter.doFilter(post("/api/cart/add", body), new MockHttpServletResponse(), (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    read.writeBytes(in.readAllBytes());
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+        });
+        assertThat(events).containsExactly("data", "done");
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(body);
+    }
+
+    @Test
+    void believesRealIpOnlyFromTrustedProxies() throws Exception {
+        RateLimitFilter direct = filter("", "1,1", "");
+        assertThat(send(direct, fromProxy("203.0.113.1"))).isEqualTo(200);
+        // Rotating the header does not buy a fresh budget
+        assertThat(send(direct, fromProxy("203.0.113.2"))).isEqualTo(429);
+
+        RateLimitFilter proxied = filter("", "1,1", "10.0.0.0/8");
+        assertThat(send(proxied, fromProxy("203.0.113.1"))).isEqualTo(200);
+        assertThat(send(proxied, fromProxy("203.0.113.2"))).isEqualTo(200);
+        assertThat(send(proxied, fromProxy("203.0.113.1"))).isEqualTo(429);
+    }
+
+    private static RateLimitFilter filter(String user, String ip, String trustedProxies) {
+        RateLimiter limiter = new RateLimiter();
+        ReflectionTestUtils.setField(limiter, "maxKeys", 1000);
+        RateLimitFilter filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "limiter", limiter);
+        ReflectionTestUtils.setField(filter, "objectMapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "trustedProxySpec", trustedProxies);
+        ReflectionTestUtils.setField(filter, "cartAddUser", user);
+        ReflectionTestUtils.setField(filter, "cartAddIp", ip);
+        for (String field : new String[]{"purchaseUser", "purchaseIp", "checkoutUser", "checkoutIp", "hotProduct", "hotProductIds"}) {
+            ReflectionTestUtils.setField(filter, field, "");
+        }
+        filter.init();
+        return filter;
+    }
+
+    private static MockHttpServletRequest post(String uri, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest chunked(String uri, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri) {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+        };
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest fromProxy(String realIp) {
+        MockHttpServletRequest request = post("/api/cart/add", "{}");
+        request.setRemoteAddr("10.1.2.3");
+        request.addHeader("X-Real-IP", realIp);
+        return request;
+    }
+
+    private static int send(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
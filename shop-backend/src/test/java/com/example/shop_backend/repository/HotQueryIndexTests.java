@@ -0,0 +1,104 @@
+package com.example.shop_backend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL behind the hot repository lookups and checks that MySQL
+ * picks the indexes added by the Flyway migrations.
+ */
+@SpringBootTest
+class HotQueryIndexTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cartLookupUsesUniqueUserProductKey() {
+        assertUsesIndex("SELECT * FROM cart_items WHERE user_id = 2 AND product_id = 1",
+                "uk_cart_items_user_product");
+    }
+
+    @Test
+    void sellerOrderItemsUseCoveringIndex() {
+        Map<String, Object> plan = explain("SELECT id, order_id, product_id, seller_id, quantity, price FROM order_items WHERE seller_id = 1");
+        assertThat(plan.get("key")).isEqualTo("ix_order_items_seller_order");
+        assertThat(String.valueOf(plan.get("Extra"))).contains("Using index");
+    }
+
+    @Test
+    void userOrderHistoryUsesUserCreatedIndex() {
+        assertUsesIndex("SELECT * FROM orders WHERE user_id = 2 ORDER BY created_at DESC",
+                "ix_orders_user_created");
+    }
+
+    @Test
+    @Transactional
+    void orderHistoryPageIsOneRangeScan() {
+        // 1000 orders a minute apart; rolled back after the test
+        jdbcTemplate.update("INSERT INTO orders (user_id, status, created_at)"
+                + " WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000)"
+                + " SELECT 2, 'SHIPPED', TIMESTAMP('2020-01-01') + INTERVAL n MINUTE FROM seq");
+        jdbcTemplate.update("INSERT INTO order_summaries (order_id, user_id, status, created_at, item_count, total_amount)"
+                + " SELECT id, user_id, status, created_at, 1, 0 FROM orders"
+                + " WHERE user_id = 2 AND created_at < '2020-01-02'");
+
+        // A deep page: only the ~10 rows before the cursor should be estimated, not all of the user's rows
+        Map<String, Object> plan = explain("SELECT * FROM order_summaries WHERE user_id = 2"
+                + " AND (created_at < '2020-01-01 00:10:30' OR (created_at = '2020-01-01 00:10:30' AND order_id < 1000000))"
+                + " ORDER BY created_at DESC, order_id DESC LIMIT 21");
+        assertThat(plan.get("key")).isEqualTo("ix_order_summaries_user_created");
+        assertThat(plan.get("type")).isEqualTo("range");
+        assertThat(((Number) plan.get("rows")).longValue()).isLessThan(100);
+        assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+    }
+
+    @Test
+    @Transactional
+    void autoReceiveSweepUsesStatusShippedIndex() {
+        // On data.sql's few orders a full scan is cheapest; 1000 received orders make the index pay off
+        jdbcTemplate.update("INSERT INTO orders (user_id, status, created_at, shipped_at)"
+                + " WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000)"
+                + " SELECT 2, 'RECEIVED', TIMESTAMP('2020-01-01') + INTERVAL n MINUTE,"
+                + " TIMESTAMP('2020-01-01') + INTERVAL n MINUTE FROM seq");
+
+        assertUsesIndex("SELECT * FROM orders WHERE status = 'SHIPPED' AND shipped_at < NOW() - INTERVAL 10 MINUTE",
+                "ix_orders_status_shipped");
+    }
+
+    @Test
+    @Transactional
+    void sellerProductsUseSellerIndex() {
+        // 1000 products of another seller, so seller 1's rows are a small share of the table
+        jdbcTemplate.update("INSERT INTO products (name, price, stock_quantity, seller_id)"
+                + " WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000)"
+                + " SELECT CONCAT('商品 ', n), 1.00, 1, 2 FROM seq");
+
+        assertUsesIndex("SELECT * FROM products WHERE seller_id = 1", "ix_products_seller");
+    }
+
+    @Test
+    void moneyColumnsAreFixedPoint() {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() "
+                        + "AND COLUMN_NAME = 'price' AND TABLE_NAME IN ('products', 'order_items')",
+                String.class);
+        assertThat(types).hasSize(2).containsOnly("decimal");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        assertThat(explain(sql).get("key")).as("index used by: %s", sql).isEqualTo(index);
+    }
+
+    private Map<String, Object> explain(String sql) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql).get(0);
+    }
+}
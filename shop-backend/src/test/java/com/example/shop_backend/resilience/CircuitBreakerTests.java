@@ -0,0 +1,84 @@
+package com.example.shop_backend.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final CircuitBreaker breaker = new CircuitBreaker("db", 10, 4, 0.5, 0.5, SECOND, 10 * SECOND, 2);
+
+    @Test
+    void opensOnFailureRateAndRefusesCalls() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.tryAcquirePermission(0)).isTrue();
+            breaker.onFailure(0);
+        }
+        // Below minimum calls
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.tryAcquirePermission(0);
+        breaker.onSuccess(0, 1);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission(5 * SECOND)).isFalse();
+        assertThat(breaker.remainingOpenNanos(5 * SECOND)).isEqualTo(5 * SECOND);
+    }
+
+    @Test
+    void opensOnSlowCalls() {
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquirePermission(0);
+            breaker.onSuccess(0, 2 * SECOND);
+        }
+        assertThat(breaker.isOpen(0)).isTrue();
+    }
+
+    @Test
+    void halfOpenProbesCloseOrReopen() {
+        tripAt(0);
+        assertThat(breaker.tryAcquirePermission(10 * SECOND)).isTrue();
+        assertThat(breaker.tryAcquirePermission(10 * SECOND)).isTrue();
+        assertThat(breaker.tryAcquirePermission(10 * SECOND)).isFalse();
+        breaker.onSuccess(10 * SECOND, 1);
+        breaker.onSuccess(10 * SECOND, 1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        tripAt(20 * SECOND);
+        assertThat(breaker.tryAcquirePermission(30 * SECOND)).isTrue();
+        breaker.onFailure(30 * SECOND);
+        assertThat(breaker.isOpen(35 * SECOND)).isTrue();
+    }
+
+    @Test
+    void hungProbeReopensOnceItWouldBeSlow() {
+        tripAt(0);
+        assertThat(breaker.tryAcquirePermission(10 * SECOND)).isTrue();
+        breaker.onSuccess(10 * SECOND, 1);
+        // The second probe never returns
+        assertThat(breaker.tryAcquirePermission(10 * SECOND)).isTrue();
+        assertThat(breaker.tryAcquirePermission(10 * SECOND + SECOND / 2)).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        assertThat(breaker.tryAcquirePermission(11 * SECOND)).isFalse();
+        assertThat(breaker.isOpen(11 * SECOND)).isTrue();
+        // Probing again later, with the hung call's late answer counting as slow
+        assertThat(breaker.tryAcquirePermission(21 * SECOND)).isTrue();
+        breaker.onSuccess(21 * SECOND, 11 * SECOND);
+        assertThat(breaker.isOpen(21 * SECOND)).isTrue();
+        assertThat(breaker.tryAcquirePermission(31 * SECOND)).isTrue();
+        assertThat(breaker.tryAcquirePermission(31 * SECOND)).isTrue();
+        breaker.onSuccess(31 * SECOND, 1);
+        breaker.onSuccess(31 * SECOND, 1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void tripAt(long now) {
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquirePermission(now);
+            breaker.onFailure(now);
+        }
+        assertThat(breaker.isOpen(now)).isTrue();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.shop_backend.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DbGuardTests {
+
+    private static final Supplier<String> DOWN = () -> {
+        throw new DataAccessResourceFailureException("connection refused");
+    };
+
+    private final DbGuard guard = new DbGuard();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(guard, "enabled", true);
+        ReflectionTestUtils.setField(guard, "catalogPermits", 4);
+        ReflectionTestUtils.setField(guard, "historyPermits", 4);
+        ReflectionTestUtils.setField(guard, "writePermits", 4);
+        ReflectionTestUtils.setField(guard, "maxWaitMs", 10L);
+        ReflectionTestUtils.setField(guard, "window", 4);
+        ReflectionTestUtils.setField(guard, "minimumCalls", 2);
+        ReflectionTestUtils.setField(guard, "failureRate", 0.5);
+        ReflectionTestUtils.setField(guard, "slowRate", 1.0);
+        ReflectionTestUtils.setField(guard, "slowCallMs", 1000L);
+        ReflectionTestUtils.setField(guard, "openMs", 10_000L);
+        ReflectionTestUtils.setField(guard, "probes", 1);
+        ReflectionTestUtils.setField(guard, "snapshotMaxEntries", 100);
+        ReflectionTestUtils.setField(guard, "snapshotMaxRows", 1000L);
+        ReflectionTestUtils.setField(guard, "snapshotRefreshMs", 0L);
+        guard.init();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void servesLastResultWhenLoaderFails() {
+        assertThat(guard.read(DbGuard.Pool.CATALOG, "products", () -> "fresh")).isEqualTo("fresh");
+        assertThat(request.getAttribute(DbGuard.STALE_ATTRIBUTE)).isNull();
+
+        assertThat(guard.read(DbGuard.Pool.CATALOG, "products", DOWN)).isEqualTo("fresh");
+        assertThat((Long) request.getAttribute(DbGuard.STALE_ATTRIBUTE)).isPositive();
+    }
+
+    @Test
+    void fallsBackWithoutSnapshotAndFailsWithoutFallback() {
+        assertThat(guard.read(DbGuard.Pool.CATALOG, "product:1", DOWN, () -> "indexed")).isEqualTo("indexed");
+        assertThat(request.getAttribute(DbGuard.STALE_ATTRIBUTE)).isEqualTo(-1L);
+
+        assertThatThrownBy(() -> guard.read(DbGuard.Pool.CATALOG, "product:2", DOWN, () -> null))
+                .isInstanceOf(DatabaseUnavailableException.class)
+                .satisfies(e -> assertThat(((DatabaseUnavailableException) e).getRetryAfterSeconds()).isPositive());
+    }
+
+    @Test
+    void openBreakerSkipsLoaderAndBlocksWrites() {
+        guard.read(DbGuard.Pool.HISTORY, "history", () -> "page");
+        tripBreaker();
+
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(guard.read(DbGuard.Pool.HISTORY, "history", () -> "new" + loads.incrementAndGet())).isEqualTo("page");
+        assertThat(loads).hasValue(0);
+
+        assertThat(guard.writesBlocked()).isTrue();
+        assertThat(guard.retryAfterSeconds()).isBetween(1L, 10L);
+        assertThatThrownBy(() -> guard.write(() -> loads.incrementAndGet()))
+                .isInstanceOf(DatabaseUnavailableException.class);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void businessErrorsPassThroughWithoutTrippingBreaker() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.write(() -> {
+                throw new RuntimeException("库存不足");
+            })).isExactlyInstanceOf(RuntimeException.class);
+        }
+        assertThat(guard.breakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void degradedResponsesCarryStaleHeadersAndRetryAfter() throws Exception {
+        TestController controller = new TestController(guard);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new DegradedModeAdvice())
+                .addInterceptors(writeGuard())
+                .build();
+        RequestContextHolder.resetRequestAttributes();
+
+        mvc.perform(get("/catalog")).andExpect(status().isOk()).andExpect(header().doesNotExist("X-Data-Stale"));
+
+        controller.loader = DOWN;
+        mvc.perform(get("/catalog"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("catalog"))
+                .andExpect(header().string("X-Data-Stale", "true"))
+                .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
+                .andExpect(header().string("Age", "0"));
+
+        mvc.perform(get("/uncached"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+
+        // The failed reads opened the breaker: writes are refused before reaching the controller
+        mvc.perform(post("/orders"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+        assertThat(controller.writes).hasValue(0);
+    }
+
+    @Test
+    void writeGuardLetsReadsAndWritesThroughWhileClosed() throws Exception {
+        WriteGuardInterceptor interceptor = writeGuard();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/cart/add"), null, null)).isTrue();
+        tripBreaker();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/products"), null, null)).isTrue();
+    }
+
+    private void tripBreaker() {
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> guard.read(DbGuard.Pool.CATALOG, "uncached", DOWN))
+                    .isInstanceOf(DatabaseUnavailableException.class);
+        }
+        assertThat(guard.breakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private WriteGuardInterceptor writeGuard() {
+        WriteGuardInterceptor interceptor = new WriteGuardInterceptor();
+        ReflectionTestUtils.setField(interceptor, "dbGuard", guard);
+        return interceptor;
+    }
+
+    @RestController
+    static class TestController {
+        private final DbGuard guard;
+        volatile Supplier<String> loader = () -> "catalog";
+        final AtomicInteger writes = new AtomicInteger();
+
+        TestController(DbGuard guard) {
+            this.guard = guard;
+        }
+
+        @GetMapping("/catalog")
+        String catalog() {
+            return guard.read(DbGuard.Pool.CATALOG, "catalog", loader);
+        }
+
+        @GetMapping("/uncached")
+        String uncached() {
+            return guard.read(DbGuard.Pool.CATALOG, "uncached", DOWN);
+        }
+
+        @PostMapping("/orders")
+        String order() {
+            return guard.write(() -> "order " + writes.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.shop_backend.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotStoreTests {
+
+    @Test
+    void tracksWeightOfReplacedEntries() {
+        SnapshotStore store = new SnapshotStore(10, 100, 0);
+        store.put("a", "x", 10, 1);
+        store.put("b", "y", 5, 1);
+        store.put("a", "z", 3, 2);
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.weight()).isEqualTo(8);
+        assertThat(store.get("a").value()).isEqualTo("z");
+    }
+
+    @Test
+    void doesNotReplaceSnapshotsYoungerThanRefreshInterval() {
+        SnapshotStore store = new SnapshotStore(10, 100, 1000);
+        store.put("a", "old", 1, 0);
+        store.put("a", "new", 1, 999);
+        assertThat(store.get("a").value()).isEqualTo("old");
+
+        store.put("a", "new", 1, 1000);
+        assertThat(store.get("a").value()).isEqualTo("new");
+    }
+
+    @Test
+    void evictsOtherEntriesOverEntryBound() {
+        SnapshotStore store = new SnapshotStore(3, 100, 0);
+        for (int i = 0; i < 10; i++) {
+            store.put("k" + i, i, 1, 1);
+        }
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.weight()).isEqualTo(3);
+        // The entry just written is never the one evicted
+        assertThat(store.get("k9")).isNotNull();
+    }
+
+    @Test
+    void evictsOverWeightBound() {
+        SnapshotStore store = new SnapshotStore(100, 40, 0);
+        for (int i = 0; i < 10; i++) {
+            store.put("k" + i, i, 10, 1);
+        }
+        assertThat(store.weight()).isLessThanOrEqualTo(40);
+        assertThat(store.weight()).isEqualTo(store.size() * 10L);
+        assertThat(store.get("k9")).isNotNull();
+    }
+
+    @Test
+    void skipsHeavyResultsAndDropsTheirOlderSnapshot() {
+        SnapshotStore store = new SnapshotStore(100, 40, 0);
+        store.put("list", "small", 5, 1);
+        store.put("list", "huge", 11, 2);
+
+        assertThat(store.get("list")).isNull();
+        assertThat(store.weight()).isZero();
+    }
+
+    @Test
+    void ignoresNullResults() {
+        SnapshotStore store = new SnapshotStore(100, 40, 0);
+        store.put("a", null, 1, 1);
+        assertThat(store.size()).isZero();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.shop_backend.service;
+
+import com.example.shop_backend.controller.dto.ProductPage;
+import com.example.shop_backend.model.Product;
+import com.example.shop_backend.model.User;
+import com.example.shop_backend.repository.ProductRepository;
+import com.example.shop_backend.service.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetIndexTests {
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex();
+        ReflectionTestUtils.setField(index, "ready", true);
+    }
+
+    @Test
+    void filtersByPriceStockAndSeller() {
+        save(1, "10.00", 5, 1);
+        save(2, "20.00", 0, 1);
+        save(3, "20.00", null, 2);
+        save(4, "30.00", 1, 2);
+        save(5, "40.00", 2, 1);
+
+        assertThat(ids(index.query(new BigDecimal("20"), new BigDecimal("30"), false, null, false, 0, 10)))
+                .containsExactly(2L, 3L, 4L);
+        // A null stock is unlimited
+        assertThat(ids(index.query(null, null, true, null, false, 0, 10))).containsExactly(1L, 3L, 4L, 5L);
+        assertThat(ids(index.query(null, new BigDecimal("35"), true, 1L, false, 0, 10))).containsExactly(1L);
+        assertThat(ids(index.query(null, null, false, 2L, true, 0, 10))).containsExactly(4L, 3L);
+        assertThat(ids(index.query(new BigDecimal("19.999"), new BigDecimal("20.001"), false, null, true, 0, 10)))
+                .containsExactly(3L, 2L);
+        assertThat(ids(index.query(null, null, false, 9L, false, 0, 10))).isEmpty();
+
+        ProductPage second = index.query(null, null, false, null, false, 1, 2);
+        assertThat(ids(second)).containsExactly(3L, 4L);
+        assertThat(second.getTotal()).isEqualTo(5);
+    }
+
+    @Test
+    void walksASelectiveSellersRows() {
+        for (long id = 1; id <= 40; id++) {
+            save(id, id + ".00", 1, 1);
+        }
+        save(41, "25.50", 1, 2);
+        save(42, "5.00", 0, 2);
+        save(43, "12.00", 1, 2);
+
+        // Seller 2 has far fewer products than the price range, so its bitmap is scanned
+        assertThat(ids(index.query(null, null, false, 2L, false, 0, 10))).containsExactly(42L, 43L, 41L);
+        assertThat(ids(index.query(null, null, true, 2L, true, 0, 10))).containsExactly(41L, 43L);
+        ProductPage page = index.query(null, null, false, 2L, false, 1, 2);
+        assertThat(ids(page)).containsExactly(41L);
+        assertThat(page.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void pageFarPastTheEndIsEmpty() {
+        for (long id = 1; id <= 40; id++) {
+            save(id, id + ".00", 1, 1);
+        }
+        save(41, "25.50", 1, 2);
+
+        // page * size overflows an int
+        int page = Integer.MAX_VALUE / 50;
+        ProductPage selective = index.query(null, null, false, 2L, false, page, 100);
+        assertThat(selective.getItems()).isEmpty();
+        assertThat(selective.getTotal()).isEqualTo(1);
+        ProductPage scan = index.query(null, null, false, null, false, page, 100);
+        assertThat(scan.getItems()).isEmpty();
+        assertThat(scan.getTotal()).isEqualTo(41);
+    }
+
+    @Test
+    void followsPriceStockAndSellerChanges() {
+        save(1, "10.00", 1, 1);
+        save(2, "15.00", 1, 1);
+        save(3, "20.00", 1, 2);
+
+        // Moves from the cheap end to the expensive end of the price order
+        save(1, "50.00", 1, 1);
+        assertThat(ids(index.query(null, new BigDecimal("20"), false, null, false, 0, 10))).containsExactly(2L, 3L);
+        assertThat(ids(index.query(new BigDecimal("40"), new BigDecimal("60"), false, null, false, 0, 10)))
+                .containsExactly(1L);
+        assertThat(ids(index.query(null, null, false, null, false, 0, 10))).containsExactly(2L, 3L, 1L);
+        assertThat(index.find(1).getPrice()).isEqualByComparingTo("50.00");
+
+        save(2, "15.00", 0, 2);
+        assertThat(ids(index.query(null, null, true, null, false, 0, 10))).containsExactly(3L, 1L);
+        assertThat(ids(index.query(null, null, false, 1L, false, 0, 10))).containsExactly(1L);
+        assertThat(ids(index.query(null, null, false, 2L, false, 0, 10))).containsExactly(2L, 3L);
+
+        index.onProductChanged(ProductChangedEvent.deleted(3L));
+        assertThat(index.find(3)).isNull();
+        assertThat(ids(index.query(null, null, false, 2L, false, 0, 10))).containsExactly(2L);
+        // The freed slot is reused without leaking the old row into the filters
+        save(4, "5.00", 1, 1);
+        assertThat(ids(index.query(null, null, false, null, false, 0, 10))).containsExactly(4L, 2L, 1L);
+        assertThat(ids(index.query(null, null, false, 2L, false, 0, 10))).containsExactly(2L);
+        assertThat(ids(index.query(null, null, true, null, false, 0, 10))).containsExactly(4L, 1L);
+        assertThat(index.all()).extracting(Product::getId).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    void staleSnapshotsAreReplacedByTheDatabaseState() {
+        save(1, "10.00", 5, 1);
+        save(2, "20.00", 1, 1);
+        // The sale that sold out product 1 commits last, but its listener runs first
+        Product soldOut = product(1, "10.00", 0, 1);
+        index.onProductChanged(ProductChangedEvent.saved(soldOut));
+        save(1, "10.00", 5, 1);
+        assertThat(ids(index.query(null, null, true, null, false, 0, 10))).containsExactly(1L, 2L);
+
+        // Product 2 has been deleted since its last event
+        ReflectionTestUtils.setField(index, "productRepository", repository(soldOut));
+        index.refreshStale();
+        assertThat(ids(index.query(null, null, true, null, false, 0, 10))).isEmpty();
+        assertThat(index.find(1).getStockQuantity()).isZero();
+        assertThat(index.find(2)).isNull();
+        assertThat(index.all()).extracting(Product::getId).containsExactly(1L);
+    }
+
+    private void save(long id, String price, Integer stock, long sellerId) {
+        index.onProductChanged(ProductChangedEvent.saved(product(id, price, stock, sellerId)));
+    }
+
+    private static Product product(long id, String price, Integer stock, long sellerId) {
+        User seller = new User();
+        seller.setId(sellerId);
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(stock);
+        product.setSeller(seller);
+        return product;
+    }
+
+    /** A repository holding only {@code rows}; the refresher needs nothing but findAllById. */
+    @SuppressWarnings("unchecked")
+    private static ProductRepository repository(Product... rows) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findAllById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    List<Long> ids = new ArrayList<>();
+                    ((Iterable<Long>) args[0]).forEach(ids::add);
+                    List<Product> found = new ArrayList<>();
+                    for (Product row : rows) {
+                        if (ids.contains(row.getId())) {
+                            found.add(row);
+                        }
+                    }
+                    return found;
+                });
+    }
+
+    private static List<Long> ids(ProductPage page) {
+        return page.getItems().stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.shop_backend.service.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs two {@link LeaseService} instances with different node ids against the same database,
+ * the way two backend containers would.
+ */
+@SpringBootTest
+class LeaseServiceTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final String job = "test-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM job_leases WHERE name LIKE ?", job + "%");
+    }
+
+    @Test
+    void onlyOneNodeHoldsALease() {
+        LeaseService a = node("a", 15000);
+        LeaseService b = node("b", 15000);
+
+        assertThat(a.tryAcquire(job)).isPresent();
+        assertThat(b.tryAcquire(job)).isEmpty();
+        // Renewing keeps the same token
+        assertThat(a.tryAcquire(job).map(Lease::token)).isEqualTo(a.tryAcquire(job).map(Lease::token));
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndOldHolderIsFenced() throws InterruptedException {
+        LeaseService a = node("a", 200);
+        LeaseService b = node("b", 15000);
+
+        Lease old = a.tryAcquire(job).orElseThrow();
+        Thread.sleep(400);
+        Lease taken = b.tryAcquire(job).orElseThrow();
+
+        assertThat(taken.token()).isGreaterThan(old.token());
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> a.fence(old)))
+                .isInstanceOf(IllegalStateException.class);
+        tx.executeWithoutResult(status -> b.fence(taken));
+    }
+
+    @Test
+    void shardsAreRebalancedWhenANodeJoins() {
+        LeaseService a = node("a", 15000);
+        LeaseService b = node("b", 15000);
+
+        assertThat(a.acquireShards(job, 4)).hasSize(4);
+        // b registers itself but every shard is still held
+        assertThat(b.acquireShards(job, 4)).isEmpty();
+        // a sees two members and gives up half
+        List<Lease> kept = a.acquireShards(job, 4);
+        List<Lease> joined = b.acquireShards(job, 4);
+
+        assertThat(kept).hasSize(2);
+        assertThat(joined).hasSize(2);
+        assertThat(kept).extracting(Lease::shard).doesNotContainAnyElementsOf(joined.stream().map(Lease::shard).toList());
+    }
+
+    @Test
+    void releasedLeaseIsFreeImmediately() {
+        LeaseService a = node("a", 15000);
+        LeaseService b = node("b", 15000);
+
+        Optional<Lease> lease = a.tryAcquire(job);
+        a.release(lease.orElseThrow());
+        assertThat(b.tryAcquire(job)).isPresent();
+    }
+
+    private LeaseService node(String name, long ttlMs) {
+        ClusterNode node = new ClusterNode();
+        ReflectionTestUtils.setField(node, "configuredId", job + "-" + name);
+        ReflectionTestUtils.invokeMethod(node, "init");
+        LeaseService service = new LeaseService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "node", node);
+        ReflectionTestUtils.setField(service, "ttlMs", ttlMs);
+        return service;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.shop_backend.service.recommendation;
+
+import com.example.shop_backend.util.LongIntHashMap;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RelatedProductsTests {
+
+    @Test
+    void ordersByScoreThenLowerId() {
+        RelatedProducts top = RelatedProducts.EMPTY
+                .withScore(5, 2, 10)
+                .withScore(3, 2, 10)
+                .withScore(9, 7, 10)
+                .withScore(1, 1, 10);
+        assertThat(top.ids(10)).containsExactly(9, 3, 5, 1);
+        assertThat(top.ids(2)).containsExactly(9, 3);
+    }
+
+    @Test
+    void keepsOnlyTheBestK() {
+        RelatedProducts top = RelatedProducts.EMPTY
+                .withScore(10, 5, 3)
+                .withScore(11, 4, 3)
+                .withScore(12, 3, 3);
+        // Ties with the last entry only get in with a lower id
+        assertThat(top.withScore(13, 3, 3)).isSameAs(top);
+        assertThat(top.withScore(13, 2, 3)).isSameAs(top);
+        assertThat(top.withScore(9, 3, 3).ids(3)).containsExactly(10, 11, 9);
+        assertThat(top.withScore(14, 10, 3).ids(3)).containsExactly(14, 10, 11);
+        assertThat(top.size()).isEqualTo(3);
+    }
+
+    @Test
+    void movesARaisedScoreUpWithoutDuplicating() {
+        RelatedProducts before = RelatedProducts.EMPTY
+                .withScore(1, 5, 3)
+                .withScore(2, 4, 3)
+                .withScore(3, 3, 3);
+        RelatedProducts after = before.withScore(3, 5, 3).withScore(2, 6, 3);
+        assertThat(after.ids(3)).containsExactly(2, 1, 3);
+        // Earlier lists are never changed, readers hold them without a lock
+        assertThat(before.ids(3)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void buildsFromAMatrixRow() {
+        LongIntHashMap row = new LongIntHashMap();
+        for (long id = 1; id <= 50; id++) {
+            row.put(id, (int) (id % 7));
+        }
+        RelatedProducts top = RelatedProducts.fromRow(row, 4);
+        // Score 6 for ids 6, 13, 20, 27, ...
+        assertThat(top.ids(10)).containsExactly(6, 13, 20, 27);
+        assertThat(RelatedProducts.fromRow(new LongIntHashMap(), 4).size()).isZero();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.shop_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntHashMapTests {
+
+    /** Capacity of a map created with the default expected size. */
+    private static final int TABLE = 16;
+
+    @Test
+    void growsAndKeepsEveryEntry() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, (int) key * 2);
+        }
+        map.put(Long.MIN_VALUE, 7);
+        map.put(-1, 8);
+        assertThat(map.size()).isEqualTo(10_002);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo((int) key * 2);
+        }
+        assertThat(map.get(Long.MIN_VALUE)).isEqualTo(7);
+        assertThat(map.get(-1)).isEqualTo(8);
+        assertThat(map.containsKey(10_001)).isFalse();
+
+        map.put(5, 1);
+        assertThat(map.addTo(5, 2)).isEqualTo(3);
+        assertThat(map.addTo(20_000, 4)).isEqualTo(4);
+        assertThat(map.size()).isEqualTo(10_003);
+    }
+
+    @Test
+    void reservesKeyZero() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertThat(map.get(0)).isZero();
+        assertThat(map.containsKey(0)).isFalse();
+        assertThatThrownBy(() -> map.put(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.addTo(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        map.remove(0);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        // Four keys wanting the last slot, so their probe chain wraps around to the start of the table
+        long[] keys = keysForSlot(TABLE - 1, 4);
+        long other = keysForSlot(0, 1)[0];
+        LongIntHashMap map = new LongIntHashMap();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i + 1);
+        }
+        map.put(other, 99);
+
+        map.remove(keys[0]);
+        assertThat(map.containsKey(keys[0])).isFalse();
+        for (int i = 1; i < keys.length; i++) {
+            assertThat(map.get(keys[i])).isEqualTo(i + 1);
+        }
+        assertThat(map.get(other)).isEqualTo(99);
+
+        map.remove(keys[2]);
+        map.remove(other);
+        assertThat(map.get(keys[1])).isEqualTo(2);
+        assertThat(map.get(keys[3])).isEqualTo(4);
+        assertThat(map.containsKey(other)).isFalse();
+        assertThat(map.size()).isEqualTo(2);
+        map.remove(keys[2]);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomUpdates() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = 1 + random.nextInt(2000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i);
+                    expected.put(key, i);
+                }
+                case 1 -> {
+                    map.addTo(key, 1);
+                    expected.merge(key, 1, Integer::sum);
+                }
+                default -> {
+                    map.remove(key);
+                    expected.remove(key);
+                }
+            }
+        }
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(map.size()).isEqualTo(expected.size());
+    }
+
+    /** Positive keys whose ideal slot in a {@link #TABLE}-slot table is {@code slot}. */
+    static long[] keysForSlot(int slot, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            if ((HashMix.mix(key) & (TABLE - 1)) == slot) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
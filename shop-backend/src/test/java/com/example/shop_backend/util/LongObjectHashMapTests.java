@@ -0,0 +1,71 @@
+package com.example.shop_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongObjectHashMapTests {
+
+    @Test
+    void growsAndKeepsEveryEntry() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, "v" + key);
+        }
+        map.put(Long.MAX_VALUE, "max");
+        map.put(-3, "negative");
+        map.put(42, "replaced");
+        assertThat(map.size()).isEqualTo(10_002);
+        assertThat(map.get(1)).isEqualTo("v1");
+        assertThat(map.get(10_000)).isEqualTo("v10000");
+        assertThat(map.get(42)).isEqualTo("replaced");
+        assertThat(map.get(Long.MAX_VALUE)).isEqualTo("max");
+        assertThat(map.get(-3)).isEqualTo("negative");
+        assertThat(map.get(10_001)).isNull();
+
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).hasSize(10_002).containsEntry(7L, "v7");
+    }
+
+    @Test
+    void keepsCollidingKeysApart() {
+        long[] keys = LongIntHashMapTests.keysForSlot(5, 4);
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        for (long key : keys) {
+            map.put(key, key * 10);
+        }
+        for (long key : keys) {
+            assertThat(map.get(key)).isEqualTo(key * 10);
+        }
+        assertThat(map.size()).isEqualTo(4);
+    }
+
+    @Test
+    void reservesKeyZero() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        assertThat(map.get(0)).isNull();
+        assertThatThrownBy(() -> map.put(0, "x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.computeIfAbsent(0, key -> "x")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void computesAbsentValuesOnce() {
+        LongObjectHashMap<StringBuilder> map = new LongObjectHashMap<>();
+        int[] calls = {0};
+        map.computeIfAbsent(9, key -> {
+            calls[0]++;
+            return new StringBuilder("a");
+        }).append("b");
+        map.computeIfAbsent(9, key -> {
+            calls[0]++;
+            return new StringBuilder();
+        }).append("c");
+        assertThat(calls[0]).isEqualTo(1);
+        assertThat(map.get(9)).hasToString("abc");
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.shop_backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowBitmapTests {
+
+    @Test
+    void keepsRowsOnBothSidesOfAContainerBoundary() {
+        RowBitmap bitmap = new RowBitmap();
+        int[] rows = {1 << 20, 65536, 0, 131071, 65535};
+        for (int row : rows) {
+            bitmap.add(row);
+        }
+        bitmap.add(65536);
+        assertThat(bitmap.cardinality()).isEqualTo(5);
+        assertThat(rowsOf(bitmap)).containsExactly(0, 65535, 65536, 131071, 1 << 20);
+        assertThat(bitmap.contains(65537)).isFalse();
+        assertThat(bitmap.contains(2 << 20)).isFalse();
+
+        bitmap.remove(65536);
+        bitmap.remove(65536);
+        bitmap.remove(3 << 20);
+        assertThat(bitmap.cardinality()).isEqualTo(4);
+        assertThat(bitmap.contains(65535)).isTrue();
+        assertThat(bitmap.contains(65536)).isFalse();
+        assertThat(bitmap.contains(131071)).isTrue();
+        assertThat(rowsOf(bitmap)).containsExactly(0, 65535, 131071, 1 << 20);
+    }
+
+    @Test
+    void switchesToABitmapContainerAndBack() {
+        RowBitmap bitmap = new RowBitmap();
+        int base = 65536;
+        for (int i = 0; i < 4096; i++) {
+            bitmap.add(base + i * 3);
+        }
+        assertThat(container(bitmap, 1)).isInstanceOf(char[].class);
+        bitmap.add(base + 1);
+        assertThat(container(bitmap, 1)).isInstanceOf(long[].class);
+        assertThat(bitmap.cardinality()).isEqualTo(4097);
+        assertThat(bitmap.contains(base + 1)).isTrue();
+        assertThat(bitmap.contains(base + 2)).isFalse();
+        assertThat(bitmap.contains(base + 4095 * 3)).isTrue();
+
+        // Back to an array only once well below the threshold
+        bitmap.remove(base + 1);
+        for (int i = 0; i < 2048; i++) {
+            bitmap.remove(base + i * 3);
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(2048);
+        assertThat(container(bitmap, 1)).isInstanceOf(long[].class);
+        bitmap.remove(base + 2048 * 3);
+        assertThat(container(bitmap, 1)).isInstanceOf(char[].class);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 2049; i < 4096; i++) {
+            expected.add(base + i * 3);
+        }
+        assertThat(rowsOf(bitmap)).isEqualTo(expected);
+        assertThat(bitmap.contains(base + 2049 * 3)).isTrue();
+        assertThat(bitmap.contains(base + 2048 * 3)).isFalse();
+        bitmap.add(base + 2048 * 3);
+        assertThat(bitmap.contains(base + 2048 * 3)).isTrue();
+    }
+
+    @Test
+    void combinesWithContainsLikeTheFacetFilters() {
+        // One side as a bitmap container, the other as an array, as with a large in-stock set and one seller
+        RowBitmap inStock = new RowBitmap();
+        RowBitmap seller = new RowBitmap();
+        for (int row = 0; row < 70_000; row += 2) {
+            inStock.add(row);
+        }
+        for (int row = 0; row < 70_000; row += 5) {
+            seller.add(row);
+        }
+
+        List<Integer> both = new ArrayList<>();
+        seller.forEach(row -> {
+            if (inStock.contains(row)) {
+                both.add(row);
+            }
+        });
+        int[] either = {inStock.cardinality()};
+        seller.forEach(row -> {
+            if (!inStock.contains(row)) {
+                either[0]++;
+            }
+        });
+
+        assertThat(both).hasSize(7000).allMatch(row -> row % 10 == 0);
+        assertThat(both.get(both.size() - 1)).isEqualTo(69_990);
+        // Rows divisible by 2 or 5
+        assertThat(either[0]).isEqualTo(35_000 + 14_000 - 7000);
+    }
+
+    private static List<Integer> rowsOf(RowBitmap bitmap) {
+        List<Integer> rows = new ArrayList<>();
+        bitmap.forEach(rows::add);
+        return rows;
+    }
+
+    private static Object container(RowBitmap bitmap, int high) {
+        return ((Object[]) ReflectionTestUtils.getField(bitmap, "containers"))[high];
+    }
+}
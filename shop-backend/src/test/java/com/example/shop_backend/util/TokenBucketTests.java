@@ -0,0 +1,60 @@
+package com.example.shop_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenReportsWait() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+        // One token refills every 100 ms
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 10)).isPositive();
+    }
+
+    @Test
+    void refillsToBurstAndBecomesIdle() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(0);
+        }
+        assertThat(bucket.isIdle(SECOND / 2 - 1)).isFalse();
+        assertThat(bucket.isIdle(SECOND / 2)).isTrue();
+        // Idle time does not accumulate beyond the burst
+        int allowed = 0;
+        while (bucket.tryAcquire(10 * SECOND) == 0) {
+            allowed++;
+        }
+        assertThat(allowed).isEqualTo(5);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 100, 0);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            pool.execute(() -> {
+                if (bucket.tryAcquire(0) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+}
@@ -3,26 +3,25 @@ import { Link } from 'react-router-dom';
 import { apiService } from '../services/api';
 import type { User } from '../services/api';
 
-interface OrderItem {
-  id: number;
-  product: {
-    id: number;
-    name: string;
-  };
-  quantity: number;
-  price: number;
-}
-
-interface Order {
-  id: number;
+interface OrderSummary {
+  orderId: number;
   status: 'SHIPPED' | 'RECEIVED';
   createdAt: string;
   shippedAt?: string;
   receivedAt?: string;
-  items: OrderItem[];
+  itemCount: number;
+  totalAmount: number;
+  previewProductName?: string;
+  previewImageUrl?: string;
+}
+
+interface OrderHistoryPage {
+  items: OrderSummary[];
+  nextBeforeCreatedAt?: string;
+  nextBeforeId?: number;
 }
 
-const statusMap: Record<Order['status'], string> = {
+const statusMap: Record<OrderSummary['status'], string> = {
   SHIPPED: '已发货',
   RECEIVED: '已签收',
 };
@@ -32,15 +31,24 @@ interface OrdersProps {
 }
 
 const Orders: React.FC<OrdersProps> = ({ user }) => {
-  const [orders, setOrders] = useState<Order[]>([]);
+  const [orders, setOrders] = useState<OrderSummary[]>([]);
+  const [cursor, setCursor] = useState<{ createdAt: string; id: number } | null>(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState('');
 
+  const applyPage = (page: OrderHistoryPage, append: boolean) => {
+    setOrders((prev) => (append ? [...prev, ...page.items] : page.items));
+    setCursor(page.nextBeforeCreatedAt && page.nextBeforeId != null
+      ? { createdAt: page.nextBeforeCreatedAt, id: page.nextBeforeId }
+      : null);
+  };
+
   useEffect(() => {
     const loadOrders = async () => {
       try {
-        const data = await apiService.getOrdersByUser(user.id);
-        setOrders(data);
+        const data = await apiService.getOrderHistory(user.id);
+        applyPage(data, false);
       } catch (err: any) {
         setError(err.message || '加载订单失败。');
       } finally {
@@ -50,6 +58,19 @@ const Orders: React.FC<OrdersProps> = ({ user }) => {
     loadOrders();
   }, [user.id]);
 
+  const loadMore = async () => {
+    if (!cursor) return;
+    setLoadingMore(true);
+    try {
+      const data = await apiService.getOrderHistory(user.id, cursor);
+      applyPage(data, true);
+    } catch (err: any) {
+      alert(err.message || '加载订单失败。');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   if (loading) {
     return (
       <div className="flex flex-col items-center justify-center py-20 space-y-4 text-slate-300">
@@ -84,10 +105,10 @@ const Orders: React.FC<OrdersProps> = ({ user }) => {
       <h2 className="text-3xl font-bold text-white">我的订单</h2>
       <div className="space-y-6">
         {orders.map((order) => (
-          <div key={order.id} className="bg-white/10 border border-white/20 rounded-3xl p-6 backdrop-blur">
+          <div key={order.orderId} className="bg-white/10 border border-white/20 rounded-3xl p-6 backdrop-blur">
             <div className="flex flex-col md:flex-row md:items-center md:justify-between gap-3 mb-4">
               <div className="text-slate-300">
-                <div className="text-sm">订单号: <span className="text-white font-semibold">{order.id}</span></div>
+                <div className="text-sm">订单号: <span className="text-white font-semibold">{order.orderId}</span></div>
                 <div className="text-sm">下单时间: {new Date(order.createdAt).toLocaleString()}</div>
               </div>
               <div className="flex items-center gap-3">
@@ -95,25 +116,32 @@ const Orders: React.FC<OrdersProps> = ({ user }) => {
                   {statusMap[order.status]}
                 </span>
                 <Link
-                  to={`/orders/${order.id}`}
+                  to={`/orders/${order.orderId}`}
                   className="px-4 py-2 rounded-full border border-white/20 text-slate-200 hover:text-white hover:border-cyan-200 transition-all"
                 >
                   查看详情
                 </Link>
               </div>
             </div>
-            <div className="space-y-3">
-              {order.items.map((item) => (
-                <div key={item.id} className="flex items-center justify-between border-b border-white/10 pb-3">
-                  <div className="text-white font-semibold">{item.product?.name || '商品'}</div>
-                  <div className="text-slate-300">数量: {item.quantity}</div>
-                  <div className="text-cyan-200 font-mono font-bold">¥{(item.price * item.quantity).toFixed(2)}</div>
-                </div>
-              ))}
+            <div className="flex items-center justify-between border-b border-white/10 pb-3">
+              <div className="text-white font-semibold">{order.previewProductName || '商品'}</div>
+              <div className="text-slate-300">共 {order.itemCount} 件</div>
+              <div className="text-cyan-200 font-mono font-bold">¥{order.totalAmount.toFixed(2)}</div>
             </div>
           </div>
         ))}
       </div>
+      {cursor && (
+        <div className="text-center">
+          <button
+            onClick={loadMore}
+            disabled={loadingMore}
+            className="px-6 py-3 rounded-2xl border border-white/20 text-slate-200 hover:text-white hover:border-cyan-200 transition-all disabled:opacity-50"
+          >
+            {loadingMore ? '加载中...' : '加载更多'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
@@ -13,6 +13,7 @@ const ProductDetail: React.FC<ProductDetailProps> = ({ user }) => {
   const [product, setProduct] = useState<Product | null>(null);
   const [loading, setLoading] = useState(true);
   const [quantity, setQuantity] = useState(1);
+  const [related, setRelated] = useState<Product[]>([]);
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -29,6 +30,9 @@ const ProductDetail: React.FC<ProductDetailProps> = ({ user }) => {
       }
     };
     fetchProduct();
+    if (id) {
+      apiService.getRecommendations(parseInt(id)).then(setRelated).catch(() => setRelated([]));
+    }
   }, [id]);
 
   const handleAddToCart = async () => {
@@ -136,6 +140,29 @@ const ProductDetail: React.FC<ProductDetailProps> = ({ user }) => {
           </div>
         </div>
       </div>
+
+      {related.length > 0 && (
+        <div className="mt-16">
+          <h2 className="text-2xl font-bold text-white mb-6">经常一起购买</h2>
+          <div className="grid grid-cols-2 md:grid-cols-3 lg:grid-cols-6 gap-4">
+            {related.map((item) => (
+              <Link
+                key={item.id}
+                to={`/product/${item.id}`}
+                className="bg-white/10 border border-white/20 rounded-2xl p-3 backdrop-blur hover:bg-white/20 transition-all"
+              >
+                <img
+                  src={item.imageUrl || 'https://via.placeholder.com/300x200?text=No+Image'}
+                  alt={item.name}
+                  className="w-full h-28 object-cover rounded-xl mb-2"
+                />
+                <p className="text-white text-sm font-semibold truncate">{item.name}</p>
+                <p className="text-cyan-200 font-mono text-sm">¥{item.price.toFixed(2)}</p>
+              </Link>
+            ))}
+          </div>
+        </div>
+      )}
     </div>
   );
 };
@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import { apiService } from '../services/api';
 import type { User } from '../services/api';
 import type { Product } from '../types/Product';
@@ -23,6 +23,10 @@ interface SellerStats {
   productSales: Record<string, number>;
 }
 
+interface SellerFeedEvent extends SellerStats {
+  items: SellerOrderItem[];
+}
+
 const statusMap: Record<'SHIPPED' | 'RECEIVED', string> = {
   SHIPPED: '已发货',
   RECEIVED: '已签收',
@@ -39,6 +43,7 @@ const SellerDashboard: React.FC<SellerDashboardProps> = ({ user }) => {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [showAddForm, setShowAddForm] = useState(false);
+  const reconnected = useRef(false);
 
   const loadAll = async () => {
     try {
@@ -61,6 +66,33 @@ const SellerDashboard: React.FC<SellerDashboardProps> = ({ user }) => {
     loadAll();
   }, [user.id]);
 
+  useEffect(() => {
+    const source = apiService.subscribeSellerFeed(user.id);
+    source.addEventListener('order', (event) => {
+      const feed: SellerFeedEvent = JSON.parse((event as MessageEvent).data);
+      setOrders((prev) => [...prev, ...feed.items]);
+      setStats((prev) => {
+        if (!prev) return prev;
+        const productSales = { ...prev.productSales };
+        Object.entries(feed.productSales).forEach(([name, quantity]) => {
+          productSales[name] = (productSales[name] || 0) + quantity;
+        });
+        return {
+          totalRevenue: prev.totalRevenue + feed.totalRevenue,
+          totalOrders: prev.totalOrders + feed.totalOrders,
+          totalUnits: prev.totalUnits + feed.totalUnits,
+          productSales,
+        };
+      });
+    });
+    // 连接被服务端断开（如推送积压）后浏览器会自动重连，这里重新拉取一次全量数据
+    source.addEventListener('ready', () => {
+      if (reconnected.current) loadAll();
+      reconnected.current = true;
+    });
+    return () => source.close();
+  }, [user.id]);
+
   const handleCreated = (product: Product) => {
     setProducts((prev) => [product, ...prev]);
     setShowAddForm(false);
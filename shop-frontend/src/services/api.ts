@@ -42,6 +42,10 @@ class ApiService {
     return this.request<Product>(`/products/${id}`);
   }
 
+  async getRecommendations(id: number, limit: number = 6): Promise<Product[]> {
+    return this.request<Product[]>(`/products/${id}/recommendations?limit=${limit}`);
+  }
+
   async createProduct(product: Omit<Product, 'id'> & { sellerId: number }): Promise<Product> {
     return this.request<Product>('/products', {
       method: 'POST',
@@ -122,6 +126,15 @@ class ApiService {
     return this.request<any[]>(`/orders/user/${userId}`);
   }
 
+  async getOrderHistory(userId: number, before?: { createdAt: string; id: number }, size: number = 20): Promise<any> {
+    const params = new URLSearchParams({ size: String(size) });
+    if (before) {
+      params.set('beforeCreatedAt', before.createdAt);
+      params.set('beforeId', String(before.id));
+    }
+    return this.request<any>(`/orders/user/${userId}/history?${params}`);
+  }
+
   async getOrderDetail(orderId: number, userId: number): Promise<any> {
     return this.request<any>(`/orders/${orderId}/user/${userId}`);
   }
@@ -133,6 +146,10 @@ class ApiService {
   async getSellerStats(sellerId: number): Promise<any> {
     return this.request<any>(`/orders/seller/${sellerId}/stats`);
   }
+
+  subscribeSellerFeed(sellerId: number): EventSource {
+    return new EventSource(`${API_BASE_URL}/orders/seller/${sellerId}/stream`);
+  }
 }
 
 export const apiService = new ApiService();
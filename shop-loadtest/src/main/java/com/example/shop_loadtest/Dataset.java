@@ -0,0 +1,90 @@
+package com.example.shop_loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ids the scenarios operate on: one seller, a pool of buyers, a catalog and
+ * the single product every flash-sale request competes for.
+ */
+public class Dataset {
+
+    final long sellerId;
+    final long[] buyerIds;
+    final long[] productIds;
+    final long flashProductId;
+
+    private Dataset(long sellerId, long[] buyerIds, long[] productIds, long flashProductId) {
+        this.sellerId = sellerId;
+        this.buyerIds = buyerIds;
+        this.productIds = productIds;
+        this.flashProductId = flashProductId;
+    }
+
+    long randomBuyer(ThreadLocalRandom rnd) {
+        return buyerIds[rnd.nextInt(buyerIds.length)];
+    }
+
+    long randomProduct(ThreadLocalRandom rnd) {
+        return productIds[rnd.nextInt(productIds.length)];
+    }
+
+    /**
+     * Registers a fresh seller, buyers and products through the public API, in parallel
+     * on virtual threads. Names carry a run id so repeated runs do not collide.
+     */
+    static Dataset seedThroughApi(ShopClient client, LoadTestConfig config) throws Exception {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        long sellerId = client.register("lt-seller-" + run, "lt-seller-" + run + "@loadtest.local", "SELLER");
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> buyers = new ArrayList<>();
+            for (int i = 0; i < config.seedBuyers; i++) {
+                String name = "lt-" + run + "-" + i;
+                buyers.add(pool.submit(() -> client.register(name, name + "@loadtest.local", "CUSTOMER")));
+            }
+            List<Future<Long>> products = new ArrayList<>();
+            for (int i = 0; i < config.seedProducts; i++) {
+                String name = "LT Product " + run + "-" + i;
+                String price = (i % 100) + 1 + ".99";
+                // Large stock so that checkout traffic measures the happy path, not stock-outs
+                products.add(pool.submit(() -> client.createProduct(sellerId, name, price, 10_000_000)));
+            }
+            Future<Long> flash = pool.submit(() ->
+                    client.createProduct(sellerId, "LT Flash " + run, "1.00", config.flashStock));
+
+            return new Dataset(sellerId, join(buyers), join(products), flash.get());
+        }
+    }
+
+    /**
+     * Uses data that already exists in the database, e.g. generated by the backend's datagen profile.
+     */
+    static Dataset existing(ShopClient client, LoadTestConfig config) throws Exception {
+        List<Long> products = new ArrayList<>(client.listProductIds(0));
+        if (products.isEmpty()) {
+            throw new IllegalStateException("No products found at " + config.baseUrl);
+        }
+        long flash = config.flashProductId != 0 ? config.flashProductId : products.get(0);
+        Collections.shuffle(products);
+        int buyerCount = (int) (config.buyerIdTo - config.buyerIdFrom + 1);
+        long[] buyers = new long[buyerCount];
+        for (int i = 0; i < buyerCount; i++) {
+            buyers[i] = config.buyerIdFrom + i;
+        }
+        return new Dataset(config.sellerId, buyers, products.stream().mapToLong(Long::longValue).toArray(), flash);
+    }
+
+    private static long[] join(List<Future<Long>> futures) throws Exception {
+        long[] ids = new long[futures.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = futures.get(i).get();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.shop_loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options, all given as {@code --key=value}.
+ */
+public class LoadTestConfig {
+
+    final URI baseUrl;
+    final Duration warmup;
+    final Duration duration;
+    final int users;
+    final int rate;
+    final Duration thinkTime;
+    final Duration requestTimeout;
+    final String seedMode;
+    final int seedBuyers;
+    final int seedProducts;
+    final int flashStock;
+    final long sellerId;
+    final long buyerIdFrom;
+    final long buyerIdTo;
+    final long flashProductId;
+    final Map<Operation, Integer> mix;
+
+    private LoadTestConfig(Map<String, String> args) {
+        this.baseUrl = URI.create(args.getOrDefault("base-url", "http://localhost:8080"));
+        this.warmup = Duration.ofSeconds(Long.parseLong(args.getOrDefault("warmup", "10")));
+        this.duration = Duration.ofSeconds(Long.parseLong(args.getOrDefault("duration", "60")));
+        this.users = Integer.parseInt(args.getOrDefault("users", "200"));
+        this.rate = Integer.parseInt(args.getOrDefault("rate", "0"));
+        this.thinkTime = Duration.ofMillis(Long.parseLong(args.getOrDefault("think-ms", "0")));
+        this.requestTimeout = Duration.ofSeconds(Long.parseLong(args.getOrDefault("timeout", "30")));
+        this.seedMode = args.getOrDefault("seed", "api");
+        this.seedBuyers = Integer.parseInt(args.getOrDefault("seed-buyers", "500"));
+        this.seedProducts = Integer.parseInt(args.getOrDefault("seed-products", "200"));
+        this.flashStock = Integer.parseInt(args.getOrDefault("flash-stock", "1000000"));
+        this.sellerId = Long.parseLong(args.getOrDefault("seller-id", "1"));
+        String[] range = args.getOrDefault("buyer-ids", "2-2").split("-");
+        this.buyerIdFrom = Long.parseLong(range[0]);
+        this.buyerIdTo = Long.parseLong(range[range.length - 1]);
+        this.flashProductId = Long.parseLong(args.getOrDefault("flash-product-id", "0"));
+        this.mix = parseMix(args.getOrDefault("mix", "browse:60,cart:20,checkout:5,flash:10,stats:5"));
+    }
+
+    static LoadTestConfig parse(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                args.put(arg.substring(2), "true");
+            } else {
+                args.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return new LoadTestConfig(args);
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            mix.put(Operation.fromKey(kv[0]), Integer.parseInt(kv[1]));
+        }
+        return mix;
+    }
+
+    static String usage() {
+        return String.join("\n",
+                "Usage: java -jar shop-loadtest.jar [--key=value ...]",
+                "  --base-url=http://localhost:8080   backend under test",
+                "  --warmup=10 --duration=60          seconds; warmup samples are discarded",
+                "  --users=200                        concurrent virtual users (closed loop)",
+                "  --rate=0                           if > 0, open loop at this many requests/s",
+                "  --think-ms=0                       pause between requests of one virtual user",
+                "  --mix=browse:60,cart:20,checkout:5,flash:10,stats:5",
+                "  --seed=api                         api: register users/products through the REST API",
+                "                                     none: use an existing dataset (e.g. the datagen profile)",
+                "  --seed-buyers=500 --seed-products=200 --flash-stock=1000000",
+                "  --seller-id=1 --buyer-ids=2-2 --flash-product-id=N   used with --seed=none",
+                "",
+                "Start the backend with the loadtest profile: all requests come from one IP, and the default",
+                "per-IP rate limits would answer most writes with 429. With only a few buyers, per-user limits",
+                "trip as well; start it with --rate-limit.enabled=false instead.");
+    }
+}
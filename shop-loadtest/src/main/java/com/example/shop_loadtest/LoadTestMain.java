@@ -0,0 +1,111 @@
+package com.example.shop_loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives scripted shop traffic against a running backend and prints per-operation
+ * latency percentiles and throughput.
+ * <p>
+ * Closed loop (default): {@code --users} virtual threads each issue requests back to back.
+ * Open loop ({@code --rate > 0}): requests are started on a fixed schedule regardless of how
+ * fast the backend answers, and latency is measured from the scheduled start.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            System.out.println(LoadTestConfig.usage());
+            return;
+        }
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        ShopClient client = new ShopClient(config.baseUrl, config.requestTimeout);
+
+        System.out.println("Preparing dataset (" + config.seedMode + ") against " + config.baseUrl);
+        Dataset data = "none".equals(config.seedMode)
+                ? Dataset.existing(client, config)
+                : Dataset.seedThroughApi(client, config);
+        System.out.printf("Dataset: seller=%d buyers=%d products=%d flashProduct=%d%n",
+                data.sellerId, data.buyerIds.length, data.productIds.length, data.flashProductId);
+
+        Workload workload = new Workload(client, data, config.mix);
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup.toNanos();
+        long end = measureFrom + config.duration.toNanos();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (config.rate > 0) {
+                pool.submit(() -> openLoop(pool, workload, config.rate, end));
+            } else {
+                for (int i = 0; i < config.users; i++) {
+                    pool.submit(() -> closedLoop(workload, config.thinkTime, end));
+                }
+            }
+            sleepUntil(measureFrom);
+            workload.reset();
+            System.out.println("Warmup finished, measuring for " + config.duration.toSeconds() + "s");
+            sleepUntil(end);
+            report(workload.stats(), System.nanoTime() - measureFrom);
+            pool.shutdownNow();
+            pool.awaitTermination(config.requestTimeout.toSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    private static void closedLoop(Workload workload, Duration thinkTime, long end) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            workload.execute(workload.next(rnd), System.nanoTime());
+            if (!thinkTime.isZero()) {
+                LockSupport.parkNanos(thinkTime.toNanos());
+            }
+        }
+    }
+
+    private static void openLoop(ExecutorService pool, Workload workload, int rate, long end) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long next = System.nanoTime();
+        while (next < end && !Thread.currentThread().isInterrupted()) {
+            long scheduled = next;
+            Operation op = workload.next(rnd);
+            pool.submit(() -> workload.execute(op, scheduled));
+            next += interval;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private static void report(Map<Operation, OperationStats> stats, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("%-34s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "2xx", "4xx", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long totalRequests = 0;
+        for (Map.Entry<Operation, OperationStats> e : stats.entrySet()) {
+            OperationStats s = e.getValue();
+            long n = s.latency.count();
+            if (n == 0) {
+                continue;
+            }
+            totalRequests += n;
+            System.out.printf("%-34s %9d %9.1f %8d %8d %9d %9.2f %9.2f %9.2f %9.2f%n",
+                    e.getKey().label, n, n / seconds, s.ok.sum(), s.rejected.sum(), s.errors.sum(),
+                    s.latency.percentileMicros(0.50) / 1000.0,
+                    s.latency.percentileMicros(0.99) / 1000.0,
+                    s.latency.percentileMicros(0.999) / 1000.0,
+                    s.latency.maxMicros() / 1000.0);
+        }
+        System.out.printf("%nTotal: %d requests in %.1fs, %.1f req/s%n", totalRequests, seconds, totalRequests / seconds);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.shop_loadtest;
+
+/**
+ * The backend calls driven by the load test. Each one gets its own latency histogram.
+ */
+public enum Operation {
+    BROWSE("browse", "GET /api/products"),
+    CART_ADD("cart", "POST /api/cart/add"),
+    CHECKOUT("checkout", "POST /api/cart/{userId}/checkout"),
+    FLASH_PURCHASE("flash", "POST /api/products/{id}/purchase"),
+    SELLER_STATS("stats", "GET /api/orders/seller/{id}/stats");
+
+    final String key;
+    final String label;
+
+    Operation(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation op : values()) {
+            if (op.key.equals(key)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in --mix: " + key);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.shop_loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counters for one {@link Operation}.
+ * Business rejections (HTTP 4xx, e.g. "库存不足" during a flash sale) are counted
+ * separately from transport failures and 5xx responses.
+ */
+public class OperationStats {
+
+    final LatencyHistogram latency = new LatencyHistogram();
+    final LongAdder ok = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    void record(long startNanos, int status) {
+        latency.recordNanos(System.nanoTime() - startNanos);
+        if (status >= 200 && status < 300) {
+            ok.increment();
+        } else if (status >= 400 && status < 500) {
+            rejected.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    void recordFailure(long startNanos) {
+        latency.recordNanos(System.nanoTime() - startNanos);
+        errors.increment();
+    }
+}
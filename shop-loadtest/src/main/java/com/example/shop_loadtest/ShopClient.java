@@ -0,0 +1,119 @@
+package com.example.shop_loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Thin blocking wrapper around the shop REST API. Calls are meant to be made
+ * from virtual threads, so blocking on the response is cheap.
+ */
+public class ShopClient {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern PRODUCT_ID = Pattern.compile("\\{\"id\"\\s*:\\s*(\\d+)\\s*,\\s*\"name\"");
+    private static final Pattern SELLER_ID = Pattern.compile("\"seller\"\\s*:\\s*\\{\"id\"\\s*:\\s*(\\d+)");
+
+    private final HttpClient http;
+    private final URI baseUrl;
+    private final Duration timeout;
+
+    public ShopClient(URI baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public HttpResponse<String> browse() throws IOException, InterruptedException {
+        return send(get("/api/products"));
+    }
+
+    public HttpResponse<String> addToCart(long userId, long productId, int quantity) throws IOException, InterruptedException {
+        return send(post("/api/cart/add",
+                "{\"userId\":" + userId + ",\"productId\":" + productId + ",\"quantity\":" + quantity + "}"));
+    }
+
+    public HttpResponse<String> checkout(long userId) throws IOException, InterruptedException {
+        return send(post("/api/cart/" + userId + "/checkout", ""));
+    }
+
+    public HttpResponse<String> purchase(long userId, long productId, int quantity) throws IOException, InterruptedException {
+        return send(post("/api/products/" + productId + "/purchase",
+                "{\"userId\":" + userId + ",\"quantity\":" + quantity + "}"));
+    }
+
+    public HttpResponse<String> sellerStats(long sellerId) throws IOException, InterruptedException {
+        return send(get("/api/orders/seller/" + sellerId + "/stats"));
+    }
+
+    public long register(String username, String email, String role) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(post("/api/auth/register",
+                "{\"username\":\"" + username + "\",\"password\":\"loadtest\",\"email\":\"" + email
+                        + "\",\"role\":\"" + role + "\"}"));
+        return expectId(response, "register " + username);
+    }
+
+    public long createProduct(long sellerId, String name, String price, int stock) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(post("/api/products",
+                "{\"name\":\"" + name + "\",\"description\":\"load test\",\"price\":" + price
+                        + ",\"imageUrl\":\"/100191209_p0.jpg\",\"stockQuantity\":" + stock
+                        + ",\"sellerId\":" + sellerId + "}"));
+        return expectId(response, "create product " + name);
+    }
+
+    /**
+     * Product ids currently in the catalog, optionally restricted to one seller (0 = any).
+     */
+    public List<Long> listProductIds(long sellerId) throws IOException, InterruptedException {
+        String body = browse().body();
+        List<Long> ids = new ArrayList<>();
+        Matcher product = PRODUCT_ID.matcher(body);
+        Matcher seller = SELLER_ID.matcher(body);
+        while (product.find()) {
+            long id = Long.parseLong(product.group(1));
+            if (sellerId == 0 || (seller.find(product.end()) && Long.parseLong(seller.group(1)) == sellerId)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long expectId(HttpResponse<String> response, String what) {
+        Matcher m = ID.matcher(response.body());
+        if (response.statusCode() / 100 != 2 || !m.find()) {
+            throw new IllegalStateException(what + " failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+        return Long.parseLong(m.group(1));
+    }
+}
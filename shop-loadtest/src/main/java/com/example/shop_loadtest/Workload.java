@@ -0,0 +1,100 @@
+package com.example.shop_loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the next operation from the configured mix and executes it, recording
+ * each HTTP call under its own {@link Operation}.
+ */
+public class Workload {
+
+    private final ShopClient client;
+    private final Dataset data;
+    private final Operation[] ops;
+    private final int[] cumulativeWeights;
+    private volatile Map<Operation, OperationStats> stats = newStats();
+
+    public Workload(ShopClient client, Dataset data, Map<Operation, Integer> mix) {
+        this.client = client;
+        this.data = data;
+        this.ops = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[ops.length];
+        int sum = 0;
+        for (int i = 0; i < ops.length; i++) {
+            sum += mix.get(ops[i]);
+            cumulativeWeights[i] = sum;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("--mix weights must add up to more than 0");
+        }
+    }
+
+    /**
+     * Discards everything recorded so far, used at the end of the warmup phase.
+     */
+    public void reset() {
+        stats = newStats();
+    }
+
+    public Map<Operation, OperationStats> stats() {
+        return stats;
+    }
+
+    public Operation next(ThreadLocalRandom rnd) {
+        int pick = rnd.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < ops.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return ops[i];
+            }
+        }
+        return ops[ops.length - 1];
+    }
+
+    /**
+     * @param scheduledNanos when the request was supposed to start; in open-loop mode this
+     *                       is earlier than "now" if the generator fell behind, which keeps
+     *                       queueing delay in the numbers instead of hiding it
+     */
+    public void execute(Operation op, long scheduledNanos) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long buyer = data.randomBuyer(rnd);
+        switch (op) {
+            case BROWSE -> call(op, scheduledNanos, () -> client.browse());
+            case CART_ADD -> call(op, scheduledNanos, () -> client.addToCart(buyer, data.randomProduct(rnd), 1));
+            case CHECKOUT -> {
+                call(Operation.CART_ADD, scheduledNanos, () -> client.addToCart(buyer, data.randomProduct(rnd), 1));
+                call(op, System.nanoTime(), () -> client.checkout(buyer));
+            }
+            case FLASH_PURCHASE -> call(op, scheduledNanos, () -> client.purchase(buyer, data.flashProductId, 1));
+            case SELLER_STATS -> call(op, scheduledNanos, () -> client.sellerStats(data.sellerId));
+        }
+    }
+
+    private void call(Operation op, long startNanos, Call call) {
+        OperationStats s = stats.get(op);
+        try {
+            HttpResponse<String> response = call.run();
+            s.record(startNanos, response.statusCode());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            s.recordFailure(startNanos);
+        }
+    }
+
+    private static Map<Operation, OperationStats> newStats() {
+        Map<Operation, OperationStats> map = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            map.put(op, new OperationStats());
+        }
+        return map;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<String> run() throws Exception;
+    }
+}